@@ -67,26 +67,25 @@ public class AutonCapBallPark extends CraigLauncherAuton {
     @Override
     public void runOpMode() {
 
-        setup();
+        try {
+            waitForInit(setup());
 
-        // Wait for the game to start (driver presses PLAY)
-        waitForStart();
+            // Wait for the game to start (driver presses PLAY)
+            waitForStart();
 
-        runRoutine(0);
+            runRoutine(0);
+        } finally {
+            shutdown();
+        }
 
+        reportLoopStats();
         telemetry.addData("Path", "Complete");
         telemetry.update();
     }
 
     public void runRoutine(long delay) {
-        // Step through each leg of the path,
-        // Note: Reverse movement is obtained by setting a negative distance (not speed)
-        // (-,+) is turn left; (+,-) is turn right
-        // Max time values are commented for each robot operation (not including delayO
-
-        sleep(delay);
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED,  60, 60, 10.0);
-
+        // Step through each leg of the path, see Routines.capBallPark for the legs
+        runCommand(Routines.capBallPark(robot, delay));
     }
 
 }
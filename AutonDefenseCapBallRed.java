@@ -67,29 +67,25 @@ public class AutonDefenseCapBallRed extends CraigLauncherAuton {
     @Override
     public void runOpMode() {
 
-        setup();
+        try {
+            waitForInit(setup());
 
-        // Wait for the game to start (driver presses PLAY)
-        waitForStart();
+            // Wait for the game to start (driver presses PLAY)
+            waitForStart();
 
-        runRoutine(8000);
+            runRoutine(8000);
+        } finally {
+            shutdown();
+        }
 
+        reportLoopStats();
         telemetry.addData("Path", "Complete");
         telemetry.update();
     }
 
     public void runRoutine(long delay) {
-        // Step through each leg of the path,
-        // Note: Reverse movement is obtained by setting a negative distance (not speed)
-        // (-,+) is turn left; (+,-) is turn right
-        // Max time values are commented for each robot operation (not including delayO
-
-        sleep(delay);
-        double dist1 = 8 * Math.sqrt(2) * 12;
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED,  dist1, dist1, 8.0);
-        encoderDrive(CraigLauncherAuton.TURN_SPEED, 15, -15, 2.0);
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED, 72, 72, 4.0);
-
+        // Step through each leg of the path, see Routines.defenseCapBallRed for the legs
+        runCommand(Routines.defenseCapBallRed(robot, delay));
     }
 
 }
@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Steers the drive into a beacon toward the button of our color, using the camera's
+ * {@link BeaconReading}, so the first press is the right one.
+ *
+ * {@link #decide()} looks at the reading once, right before the approach, and sticks with that
+ * answer. The routine then turns a little toward that side ({@link #aimLeft()}/{@link #aimRight()}
+ * say which), drives in, and turns back once it has backed off. If the camera hasn't seen the
+ * beacon recently nothing changes and the color sensor check works as before.
+ */
+public class BeaconAim {
+
+    // half the distance between the two buttons; measure on the real beacon
+    public static final double BUTTON_OFFSET_INCHES = 2.6;
+    public static final long MAX_AGE_MILLIS = 1500;
+
+    private final CraigLauncherHardware robot;
+    private final BeaconColor teamColor;
+    private int side;
+
+    public BeaconAim(CraigLauncherHardware robot, BeaconColor teamColor) {
+        this.robot = robot;
+        this.teamColor = teamColor;
+    }
+
+    /** Wheel inches each side turns to end up BUTTON_OFFSET_INCHES over after driving approachInches. */
+    public static double turnInches(double approachInches) {
+        double angle = Math.atan2(BUTTON_OFFSET_INCHES, approachInches);
+        return angle * DriveKinematics.TRACK_WIDTH_INCHES / 2;
+    }
+
+    public CraigLauncherHardware getRobot() {
+        return robot;
+    }
+
+    /** -1 left, 1 right, 0 unknown; as of the last decide(). */
+    public int getSide() {
+        return side;
+    }
+
+    /** Looks at the camera reading and remembers which side to aim for; finishes right away. */
+    public Command decide() {
+        return new Command() {
+            @Override
+            public void start() {
+                side = robot.beaconReading.sideOf(teamColor, robot.clock.nanoTime(), MAX_AGE_MILLIS * 1000000L);
+            }
+
+            @Override
+            public void execute() {
+            }
+
+            @Override
+            public boolean isFinished() {
+                return true;
+            }
+
+            @Override
+            public void end(boolean interrupted) {
+            }
+        };
+    }
+
+    public ConditionalCommand.Condition aimLeft() {
+        return new ConditionalCommand.Condition() {
+            @Override
+            public boolean test() {
+                return side < 0;
+            }
+        };
+    }
+
+    public ConditionalCommand.Condition aimRight() {
+        return new ConditionalCommand.Condition() {
+            @Override
+            public boolean test() {
+                return side > 0;
+            }
+        };
+    }
+}
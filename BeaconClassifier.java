@@ -0,0 +1,130 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Decides which color a beacon half is from one color sensor reading, by its hue and saturation.
+ *
+ * The sensor's channels are small integers, so everything is done with lookup tables built in
+ * the constructor: a reciprocal table for the divisions in the RGB to HSV conversion, and
+ * per-hue and per-saturation weights for each class. Classifying a reading is a handful of
+ * array lookups and never allocates. The result of the last reading (hue, saturation and a
+ * 0 to 1 confidence for each color) stays in the classifier until the next one.
+ */
+public class BeaconClassifier {
+
+    // channels above this are clipped; the sensor rarely gets anywhere near it
+    public static final int MAX_CHANNEL = 255;
+
+    // defaults, in degrees and 0 to 1
+    public static final int RED_HUE = 0;
+    public static final int BLUE_HUE = 230;
+    public static final int HUE_WIDTH = 40;            // full confidence at the center, none this far off
+    public static final double MIN_SATURATION = 0.3;   // grey and white are not a color
+    public static final double FULL_SATURATION = 0.6;
+    public static final int MIN_VALUE = 2;             // brightest channel; darker than this is noise
+
+    // 65536 / n, so hue and saturation need no division
+    private static final int[] RECIPROCAL = new int[MAX_CHANNEL + 1];
+
+    static {
+        for (int n = 1; n <= MAX_CHANNEL; n++) {
+            RECIPROCAL[n] = Math.round(65536f / n);
+        }
+    }
+
+    private final float[] redHueWeight = new float[360];
+    private final float[] blueHueWeight = new float[360];
+    private final float[] saturationWeight = new float[MAX_CHANNEL + 1];
+    private final int minValue;
+
+    private final float[] confidence = new float[BeaconColor.values().length];
+    private int hue;
+    private int saturation;
+
+    public BeaconClassifier() {
+        this(RED_HUE, BLUE_HUE, HUE_WIDTH, MIN_SATURATION, FULL_SATURATION, MIN_VALUE);
+    }
+
+    public BeaconClassifier(int redHue, int blueHue, int hueWidth,
+                            double minSaturation, double fullSaturation, int minValue) {
+        this.minValue = minValue;
+        for (int h = 0; h < 360; h++) {
+            redHueWeight[h] = hueWeight(h, redHue, hueWidth);
+            blueHueWeight[h] = hueWeight(h, blueHue, hueWidth);
+        }
+        for (int s = 0; s <= MAX_CHANNEL; s++) {
+            double fraction = (s / (double) MAX_CHANNEL - minSaturation) / (fullSaturation - minSaturation);
+            saturationWeight[s] = (float) Math.max(0, Math.min(1, fraction));
+        }
+    }
+
+    /** Classifies one reading; the details are available from the getters until the next call. */
+    public BeaconColor classify(int r, int g, int b) {
+        r = clip(r);
+        g = clip(g);
+        b = clip(b);
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int delta = max - min;
+
+        if (delta == 0) {
+            hue = 0;
+        } else if (max == r) {
+            hue = (60 * (g - b) * RECIPROCAL[delta]) >> 16;
+        } else if (max == g) {
+            hue = 120 + ((60 * (b - r) * RECIPROCAL[delta]) >> 16);
+        } else {
+            hue = 240 + ((60 * (r - g) * RECIPROCAL[delta]) >> 16);
+        }
+        if (hue < 0) {
+            hue += 360;
+        } else if (hue >= 360) {
+            hue -= 360;
+        }
+        saturation = max == 0 ? 0 : Math.min(MAX_CHANNEL, (delta * MAX_CHANNEL * RECIPROCAL[max]) >> 16);
+
+        float red = 0;
+        float blue = 0;
+        if (max >= minValue) {
+            red = redHueWeight[hue] * saturationWeight[saturation];
+            blue = blueHueWeight[hue] * saturationWeight[saturation];
+        }
+        confidence[BeaconColor.RED.ordinal()] = red;
+        confidence[BeaconColor.BLUE.ordinal()] = blue;
+        confidence[BeaconColor.NONE.ordinal()] = 1 - Math.max(red, blue);
+
+        if (red > 0.5f && red > blue) {
+            return BeaconColor.RED;
+        } else if (blue > 0.5f) {
+            return BeaconColor.BLUE;
+        } else {
+            return BeaconColor.NONE;
+        }
+    }
+
+    /** Hue of the last reading, 0 to 359 degrees. */
+    public int getHue() {
+        return hue;
+    }
+
+    /** Saturation of the last reading, 0 to 1. */
+    public double getSaturation() {
+        return saturation / (double) MAX_CHANNEL;
+    }
+
+    /** How sure we are the last reading was this color, 0 to 1. */
+    public float getConfidence(BeaconColor color) {
+        return confidence[color.ordinal()];
+    }
+
+    private static int clip(int channel) {
+        return channel < 0 ? 0 : (channel > MAX_CHANNEL ? MAX_CHANNEL : channel);
+    }
+
+    private static float hueWeight(int h, int center, int width) {
+        int distance = Math.abs(h - center) % 360;
+        if (distance > 180) {
+            distance = 360 - distance;
+        }
+        return Math.max(0, 1 - distance / (float) width);
+    }
+}
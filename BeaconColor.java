@@ -0,0 +1,10 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Which color a beacon half is lit, as decided by {@link BeaconClassifier}.
+ */
+public enum BeaconColor {
+    RED,
+    BLUE,
+    NONE
+}
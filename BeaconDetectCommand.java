@@ -0,0 +1,79 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Samples the color sensor until it is sure which color the beacon is, or for at most a
+ * couple of seconds. The snapshot only reads the sensor while this runs; each fresh reading goes
+ * into a {@link ColorSampler}. Never stops before
+ * {@link #MIN_SAMPLE_TIME_S}, so the readings span more than one of the sensor's own updates.
+ * The answer is available from {@link #getColor()} once finished.
+ */
+public class BeaconDetectCommand implements Command {
+
+    public static final double MIN_SAMPLE_TIME_S = 0.15;
+    public static final double MAX_SAMPLE_TIME_S = 2.0;
+
+    private final CraigLauncherHardware robot;
+    private final ColorSampler sampler = new ColorSampler();
+    private long startNanos;
+    private long lastCycle;
+
+    private double redAvg;
+    private double blueAvg;
+    private BeaconColor color = BeaconColor.NONE;
+
+    public BeaconDetectCommand(CraigLauncherHardware robot) {
+        this.robot = robot;
+    }
+
+    @Override
+    public void start() {
+        startNanos = robot.clock.nanoTime();
+        lastCycle = -1;
+        sampler.setClassifier(robot.beaconClassifier);
+        sampler.clear();
+        color = BeaconColor.NONE;
+        // the snapshot this cycle was taken without color; sampling starts with the next one
+        robot.snapshot.setReadColor(true);
+    }
+
+    @Override
+    public void execute() {
+        HardwareSnapshot snapshot = robot.snapshot;
+        if (snapshot.getCycle() == lastCycle || !snapshot.isColorFresh()) {
+            return;     // same reading as last time, or no reading, don't count it
+        }
+        lastCycle = snapshot.getCycle();
+        sampler.add(snapshot.getTimestampNanos(), snapshot.getRed(), snapshot.getGreen(), snapshot.getBlue());
+    }
+
+    @Override
+    public boolean isFinished() {
+        double elapsed = (robot.clock.nanoTime() - startNanos) / 1e9;
+        return (sampler.isConfident() && elapsed >= MIN_SAMPLE_TIME_S) || elapsed >= MAX_SAMPLE_TIME_S;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        robot.snapshot.setReadColor(false);
+        redAvg = sampler.getRedMean();
+        blueAvg = sampler.getBlueMean();
+
+        color = sampler.getColor();
+    }
+
+    public BeaconColor getColor() {
+        return color;
+    }
+
+    public double getRedAverage() {
+        return redAvg;
+    }
+
+    public double getBlueAverage() {
+        return blueAvg;
+    }
+
+    public ColorSampler getSampler() {
+        return sampler;
+    }
+}
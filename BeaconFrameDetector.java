@@ -0,0 +1,156 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the color of both beacon halves out of a camera frame.
+ *
+ * Given the pose of a beacon's picture target relative to the camera (Vuforia's raw pose), we
+ * project the area under the picture where the beacon sits into the image, split it into a left
+ * and a right half, and average a grid of at most {@value #SAMPLES_PER_SIDE} x
+ * {@value #SAMPLES_PER_SIDE} pixels in each. The averages go through a {@link BeaconClassifier}.
+ *
+ * Pixels are read straight out of the frame's RGB565 buffer (no copy) and nothing is allocated
+ * per frame.
+ */
+public class BeaconFrameDetector {
+
+    // where the beacon is in the target's frame, mm: x right, y up from the picture's center.
+    // Rough numbers from the field drawings; check them against a frame if the colors look off.
+    public static final float BEACON_LEFT_MM = -127;
+    public static final float BEACON_RIGHT_MM = 127;
+    public static final float BEACON_TOP_MM = -100;
+    public static final float BEACON_BOTTOM_MM = -250;
+
+    public static final int SAMPLES_PER_SIDE = 16;
+
+    // camera intrinsics, pixels
+    private final float fx;
+    private final float fy;
+    private final float cx;
+    private final float cy;
+
+    private final BeaconClassifier classifier = new BeaconClassifier();
+
+    // scratch, reused every frame
+    private float u;
+    private float v;
+    private int roiLeft;
+    private int roiTop;
+    private int roiRight;
+    private int roiBottom;
+
+    private BeaconColor left = BeaconColor.NONE;
+    private BeaconColor right = BeaconColor.NONE;
+    private float leftConfidence;
+    private float rightConfidence;
+
+    public BeaconFrameDetector(float fx, float fy, float cx, float cy) {
+        this.fx = fx;
+        this.fy = fy;
+        this.cx = cx;
+        this.cy = cy;
+    }
+
+    /**
+     * Classifies both halves. pose maps target coordinates to camera coordinates (PoseMath
+     * layout). Returns false, and leaves the last result alone, if the beacon isn't in the frame.
+     */
+    public boolean detect(ByteBuffer pixels, int width, int height, int stride, float[] pose) {
+        float middle = (BEACON_LEFT_MM + BEACON_RIGHT_MM) / 2;
+
+        if (!roi(pose, BEACON_LEFT_MM, middle, width, height)) {
+            return false;
+        }
+        BeaconColor leftColor = classifyRoi(pixels, stride);
+        float leftConf = classifier.getConfidence(leftColor);
+
+        if (!roi(pose, middle, BEACON_RIGHT_MM, width, height)) {
+            return false;
+        }
+        right = classifyRoi(pixels, stride);
+        rightConfidence = classifier.getConfidence(right);
+        left = leftColor;
+        leftConfidence = leftConf;
+        return true;
+    }
+
+    public BeaconColor getLeft() {
+        return left;
+    }
+
+    public BeaconColor getRight() {
+        return right;
+    }
+
+    public float getLeftConfidence() {
+        return leftConfidence;
+    }
+
+    public float getRightConfidence() {
+        return rightConfidence;
+    }
+
+    // bounding box of one half in pixels; false if it is behind the camera or off screen
+    private boolean roi(float[] pose, float x0, float x1, int width, int height) {
+        float minU = Float.MAX_VALUE;
+        float minV = Float.MAX_VALUE;
+        float maxU = -Float.MAX_VALUE;
+        float maxV = -Float.MAX_VALUE;
+        for (int corner = 0; corner < 4; corner++) {
+            float x = (corner & 1) == 0 ? x0 : x1;
+            float y = (corner & 2) == 0 ? BEACON_TOP_MM : BEACON_BOTTOM_MM;
+            if (!project(pose, x, y)) {
+                return false;
+            }
+            minU = Math.min(minU, u);
+            maxU = Math.max(maxU, u);
+            minV = Math.min(minV, v);
+            maxV = Math.max(maxV, v);
+        }
+        roiLeft = Math.max(0, (int) minU);
+        roiTop = Math.max(0, (int) minV);
+        roiRight = Math.min(width, (int) maxU);
+        roiBottom = Math.min(height, (int) maxV);
+        return roiRight > roiLeft && roiBottom > roiTop;
+    }
+
+    // pinhole projection of a point on the target's plane (z = 0)
+    private boolean project(float[] pose, float x, float y) {
+        float camX = pose[0] * x + pose[4] * y + pose[12];
+        float camY = pose[1] * x + pose[5] * y + pose[13];
+        float camZ = pose[2] * x + pose[6] * y + pose[14];
+        if (camZ <= 0) {
+            return false;
+        }
+        u = fx * camX / camZ + cx;
+        v = fy * camY / camZ + cy;
+        return true;
+    }
+
+    private BeaconColor classifyRoi(ByteBuffer pixels, int stride) {
+        int stepX = Math.max(1, (roiRight - roiLeft) / SAMPLES_PER_SIDE);
+        int stepY = Math.max(1, (roiBottom - roiTop) / SAMPLES_PER_SIDE);
+
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        int count = 0;
+        for (int row = roiTop; row < roiBottom; row += stepY) {
+            int rowStart = row * stride;
+            for (int col = roiLeft; col < roiRight; col += stepX) {
+                // RGB565, little endian
+                int index = rowStart + col * 2;
+                int pixel = (pixels.get(index) & 0xff) | (pixels.get(index + 1) & 0xff) << 8;
+                int r5 = (pixel >> 11) & 0x1f;
+                int g6 = (pixel >> 5) & 0x3f;
+                int b5 = pixel & 0x1f;
+                red += (r5 << 3) | (r5 >> 2);
+                green += (g6 << 2) | (g6 >> 4);
+                blue += (b5 << 3) | (b5 >> 2);
+                count++;
+            }
+        }
+        return classifier.classify(red / count, green / count, blue / count);
+    }
+}
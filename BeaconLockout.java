@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Keeps track of when we pressed a beacon, so we know when it will take another press.
+ *
+ * A beacon ignores presses for {@value #LOCKOUT_MILLIS} ms after it is pressed. Instead of
+ * sleeping that long when it comes up the wrong color, a routine marks the press with
+ * {@link #press()} and carries on (reading the color, backing off), then runs
+ * {@link #waitForExpiry()} right before pressing again, which only waits out what is left.
+ * With a lead the drive back in starts early, so the button goes down just as the lockout ends.
+ *
+ * The press is marked when the drive into the beacon has finished, which is a little after the
+ * button actually went down, so we never come back early.
+ */
+public class BeaconLockout {
+
+    public static final long LOCKOUT_MILLIS = 5000;
+
+    private final Clock clock;
+    private boolean pressed;
+    private long pressNanos;
+
+    public BeaconLockout(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void markPressed() {
+        pressed = true;
+        pressNanos = clock.nanoTime();
+    }
+
+    public boolean isPressed() {
+        return pressed;
+    }
+
+    public long getPressNanos() {
+        return pressNanos;
+    }
+
+    /** When the beacon takes presses again; only meaningful once pressed. */
+    public long getExpiryNanos() {
+        return pressNanos + LOCKOUT_MILLIS * 1000000L;
+    }
+
+    public boolean isLockedOut() {
+        return pressed && clock.nanoTime() < getExpiryNanos();
+    }
+
+    public long getRemainingMillis() {
+        return isLockedOut() ? (getExpiryNanos() - clock.nanoTime()) / 1000000L : 0;
+    }
+
+    /** Marks the press and finishes right away. Goes right after the drive into the beacon. */
+    public Command press() {
+        return new Command() {
+            @Override
+            public void start() {
+                markPressed();
+            }
+
+            @Override
+            public void execute() {
+            }
+
+            @Override
+            public boolean isFinished() {
+                return true;
+            }
+
+            @Override
+            public void end(boolean interrupted) {
+            }
+        };
+    }
+
+    /** Finishes as soon as the lockout from the last press is over (right away if there was none). */
+    public Command waitForExpiry() {
+        return waitForExpiry(0);
+    }
+
+    /**
+     * Finishes leadMillis before the lockout is over, for a drive back in that takes that long to
+     * reach the button.
+     */
+    public Command waitForExpiry(final long leadMillis) {
+        return new Command() {
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void execute() {
+            }
+
+            @Override
+            public boolean isFinished() {
+                return !pressed || clock.nanoTime() >= getExpiryNanos() - leadMillis * 1000000L;
+            }
+
+            @Override
+            public void end(boolean interrupted) {
+            }
+        };
+    }
+}
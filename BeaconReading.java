@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * The latest camera read of a beacon: which color each half is lit, and when we saw it.
+ *
+ * Written by the vision thread and read by the control loop. Everything is packed into one
+ * volatile long so a reader never sees the left half of one frame with the right half of
+ * another, and nothing is allocated on either side.
+ */
+public class BeaconReading {
+
+    // timestamp << 4 | (left ordinal + 1) << 2 | (right ordinal + 1); 0 until the first publish
+    private volatile long packed;
+
+    public void publish(BeaconColor left, BeaconColor right, long timestampNanos) {
+        packed = (timestampNanos << 4) | ((left.ordinal() + 1) << 2) | (right.ordinal() + 1);
+    }
+
+    public boolean isKnown() {
+        return packed != 0;
+    }
+
+    public BeaconColor getLeft() {
+        return color((int) (packed >> 2) & 3);
+    }
+
+    public BeaconColor getRight() {
+        return color((int) packed & 3);
+    }
+
+    public long getTimestampNanos() {
+        return packed >>> 4;
+    }
+
+    /**
+     * Which half is lit in the given color: -1 left, 1 right, 0 if we don't know, the read is
+     * older than maxAgeNanos, or both or neither half are that color.
+     */
+    public int sideOf(BeaconColor color, long nowNanos, long maxAgeNanos) {
+        long p = packed;
+        if (p == 0 || nowNanos - (p >>> 4) > maxAgeNanos) {
+            return 0;
+        }
+        boolean left = color((int) (p >> 2) & 3) == color;
+        boolean right = color((int) p & 3) == color;
+        if (left == right) {
+            return 0;
+        }
+        return left ? -1 : 1;
+    }
+
+    private static BeaconColor color(int bits) {
+        switch (bits) {
+            case 1:
+                return BeaconColor.RED;
+            case 2:
+                return BeaconColor.BLUE;
+            default:
+                return BeaconColor.NONE;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import com.vuforia.CameraCalibration;
+import com.vuforia.CameraDevice;
+import com.vuforia.Image;
+import com.vuforia.PIXEL_FORMAT;
+import com.vuforia.Vuforia;
+
+import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackable;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackableDefaultListener;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads beacon colors from the camera on a thread of its own, so we know which button to
+ * press before we get there. Takes frames from Vuforia's frame queue and, whenever one of the
+ * trackables is in view, runs a {@link BeaconFrameDetector} on the area below its picture.
+ * Results go to a {@link BeaconReading} (usually the robot's).
+ */
+public class BeaconVision implements Runnable {
+
+    public static final long FRAME_WAIT_MILLIS = 100;
+
+    private final VuforiaLocalizer vuforia;
+    private final VuforiaTrackableDefaultListener[] listeners;
+    private final BeaconReading reading;
+    private final Clock clock;
+
+    // reused for every frame
+    private final float[] pose = PoseMath.create();
+    private BeaconFrameDetector detector;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public BeaconVision(VuforiaLocalizer vuforia, List<VuforiaTrackable> beacons, BeaconReading reading, Clock clock) {
+        this.vuforia = vuforia;
+        this.listeners = new VuforiaTrackableDefaultListener[beacons.size()];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = (VuforiaTrackableDefaultListener) beacons.get(i).getListener();
+        }
+        this.reading = reading;
+        this.clock = clock;
+
+        // only the newest frame is any use to us
+        Vuforia.setFrameFormat(PIXEL_FORMAT.RGB565, true);
+        vuforia.setFrameQueueCapacity(1);
+    }
+
+    /** Call after the trackables have been activated (the camera has to be running). */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "BeaconVision");
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        BlockingQueue<VuforiaLocalizer.CloseableFrame> frames = vuforia.getFrameQueue();
+        while (running) {
+            VuforiaLocalizer.CloseableFrame frame;
+            try {
+                frame = frames.poll(FRAME_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (frame == null) {
+                continue;
+            }
+            try {
+                process(frame);
+            } catch (RuntimeException e) {
+                RobotLog.e("BeaconVision: " + e.getMessage());
+            } finally {
+                frame.close();
+            }
+        }
+    }
+
+    private void process(VuforiaLocalizer.CloseableFrame frame) {
+        Image image = null;
+        for (int i = 0; i < frame.getNumImages(); i++) {
+            if (frame.getImage(i).getFormat() == PIXEL_FORMAT.RGB565) {
+                image = frame.getImage(i);
+                break;
+            }
+        }
+        if (image == null) {
+            return;
+        }
+
+        if (detector == null) {
+            CameraCalibration calibration = CameraDevice.getInstance().getCameraCalibration();
+            float[] focal = calibration.getFocalLength().getData();
+            float[] center = calibration.getPrincipalPoint().getData();
+            detector = new BeaconFrameDetector(focal[0], focal[1], center[0], center[1]);
+        }
+
+        for (VuforiaTrackableDefaultListener listener : listeners) {
+            // raw pose is the target in camera coordinates, which is what the projection wants
+            OpenGLMatrix rawPose = listener.isVisible() ? listener.getRawPose() : null;
+            if (rawPose == null) {
+                continue;
+            }
+            VisionWorker.copy(rawPose, pose);
+            if (detector.detect(image.getPixels(), image.getWidth(), image.getHeight(), image.getStride(), pose)) {
+                reading.publish(detector.getLeft(), detector.getRight(), clock.nanoTime());
+                return;
+            }
+        }
+    }
+}
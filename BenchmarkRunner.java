@@ -0,0 +1,141 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Small benchmark harness for the control loop hot paths, run on a desktop JVM.
+ *
+ * We can't pull JMH into the TeamCode module (every file in here gets built into the robot app),
+ * so this does the same basic job: warm up, then time batches of calls and report the average
+ * time per call with its spread. Results are written as JSON in the same shape as JMH's
+ * "-rf json" output so the same scripts can compare runs and flag regressions.
+ */
+public class BenchmarkRunner {
+
+    public static final int WARMUP_BATCHES = 5;
+    public static final int MEASURE_BATCHES = 10;
+    public static final long BATCH_NANOS = 100000000L;     // ~100 ms per batch
+
+    public static class Result {
+        public String name;
+        public double[] nanosPerOp;
+        public double mean;
+        public double error;            // 99.9% confidence half-width, like JMH
+        public long opsPerBatch;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-40s %12.1f ns/op  +- %8.1f", name, mean, error);
+        }
+    }
+
+    // results of op() end up here so nothing gets optimised out
+    private static long sink;
+
+    public static Result run(MicroBenchmark benchmark) {
+        benchmark.setup();
+
+        // find a batch size that takes about BATCH_NANOS
+        long ops = 1;
+        while (true) {
+            long elapsed = time(benchmark, ops);
+            if (elapsed >= BATCH_NANOS / 10 || ops >= (1L << 30)) {
+                ops = Math.max(1, ops * BATCH_NANOS / Math.max(1, elapsed));
+                break;
+            }
+            ops *= 2;
+        }
+
+        for (int i = 0; i < WARMUP_BATCHES; i++) {
+            time(benchmark, ops);
+        }
+
+        Result result = new Result();
+        result.name = benchmark.getName();
+        result.opsPerBatch = ops;
+        result.nanosPerOp = new double[MEASURE_BATCHES];
+        for (int i = 0; i < MEASURE_BATCHES; i++) {
+            result.nanosPerOp[i] = time(benchmark, ops) / (double) ops;
+        }
+
+        double sum = 0;
+        for (double value : result.nanosPerOp) {
+            sum += value;
+        }
+        result.mean = sum / MEASURE_BATCHES;
+
+        double squares = 0;
+        for (double value : result.nanosPerOp) {
+            squares += (value - result.mean) * (value - result.mean);
+        }
+        double stdev = Math.sqrt(squares / (MEASURE_BATCHES - 1));
+        // t distribution, 9 degrees of freedom, 99.9% two sided
+        result.error = 4.781 * stdev / Math.sqrt(MEASURE_BATCHES);
+        return result;
+    }
+
+    private static long time(MicroBenchmark benchmark, long ops) {
+        long local = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            local ^= benchmark.op(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        sink ^= local;
+        return elapsed;
+    }
+
+    /** Runs every benchmark, prints a table and writes JSON to jsonPath (if not null). */
+    public static Result[] runAll(MicroBenchmark[] benchmarks, String jsonPath) throws IOException {
+        Result[] results = new Result[benchmarks.length];
+        for (int i = 0; i < benchmarks.length; i++) {
+            results[i] = run(benchmarks[i]);
+            System.out.println(results[i]);
+        }
+        if (jsonPath != null) {
+            writeJson(results, jsonPath);
+        }
+        System.out.println("(sink " + sink + ")");
+        return results;
+    }
+
+    public static void writeJson(Result[] results, String path) throws IOException {
+        PrintWriter out = new PrintWriter(new FileWriter(path));
+        try {
+            out.println("[");
+            for (int i = 0; i < results.length; i++) {
+                Result result = results[i];
+                out.println("  {");
+                out.println("    \"benchmark\": \"" + result.name + "\",");
+                out.println("    \"mode\": \"avgt\",");
+                out.println("    \"warmupIterations\": " + WARMUP_BATCHES + ",");
+                out.println("    \"measurementIterations\": " + MEASURE_BATCHES + ",");
+                out.println("    \"opsPerIteration\": " + result.opsPerBatch + ",");
+                out.println("    \"primaryMetric\": {");
+                out.println(String.format(Locale.US, "      \"score\": %.3f,", result.mean));
+                out.println(String.format(Locale.US, "      \"scoreError\": %.3f,", result.error));
+                out.println("      \"scoreUnit\": \"ns/op\",");
+                out.println("      \"rawData\": [" + json(result.nanosPerOp) + "]");
+                out.println("    }");
+                out.println(i == results.length - 1 ? "  }" : "  },");
+            }
+            out.println("]");
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String json(double[] values) {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(String.format(Locale.US, "%.3f", values[i]));
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Wraps a motor and remembers the last power, mode and target we sent it.
+ *
+ * Every setPower()/setMode()/setTargetPosition() on a real motor is a bus write, even if the value
+ * is the same as last loop. This skips writes that wouldn't change anything (power within
+ * {@link #POWER_EPSILON}, same mode, same target) and counts how many were sent vs. skipped.
+ *
+ * It is a {@link MotorDevice} itself, so it can stand in for the motor anywhere.
+ */
+public class CachedMotor implements MotorDevice {
+
+    public static final double POWER_EPSILON = 0.005;
+
+    private final MotorDevice motor;
+
+    private boolean powerSent = false;
+    private double lastPower;
+    private Mode lastMode;
+    private boolean targetSent = false;
+    private int lastTarget;
+
+    private int issuedWrites;
+    private int suppressedWrites;
+
+    public CachedMotor(MotorDevice motor) {
+        this.motor = motor;
+    }
+
+    @Override
+    public void setPower(double power) {
+        // always send an exact stop, otherwise skip changes smaller than the epsilon
+        boolean unchanged = power == 0 ? lastPower == 0 : Math.abs(power - lastPower) < POWER_EPSILON;
+        if (powerSent && unchanged) {
+            suppressedWrites++;
+            return;
+        }
+        motor.setPower(power);
+        lastPower = power;
+        powerSent = true;
+        issuedWrites++;
+    }
+
+    @Override
+    public void setMode(Mode mode) {
+        // STOP_AND_RESET_ENCODER is an action, not just a setting, so never skip it
+        if (mode == lastMode && mode != Mode.STOP_AND_RESET_ENCODER) {
+            suppressedWrites++;
+            return;
+        }
+        motor.setMode(mode);
+        lastMode = mode;
+        issuedWrites++;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        if (targetSent && position == lastTarget) {
+            suppressedWrites++;
+            return;
+        }
+        motor.setTargetPosition(position);
+        lastTarget = position;
+        targetSent = true;
+        issuedWrites++;
+    }
+
+    @Override
+    public void setReversed(boolean reversed) {
+        motor.setReversed(reversed);
+    }
+
+    @Override
+    public double getPower() {
+        return lastPower;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return motor.getCurrentPosition();
+    }
+
+    @Override
+    public boolean isBusy() {
+        return motor.isBusy();
+    }
+
+    /** The wrapped motor, for anything the cache doesn't cover. Writes made on it are not tracked. */
+    public MotorDevice getMotor() {
+        return motor;
+    }
+
+    public int getIssuedWrites() {
+        return issuedWrites;
+    }
+
+    public int getSuppressedWrites() {
+        return suppressedWrites;
+    }
+}
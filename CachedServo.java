@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Wraps a servo and skips setPosition() calls that are within {@link #POSITION_EPSILON} of the
+ * last position sent. See {@link CachedMotor}.
+ */
+public class CachedServo implements ServoDevice {
+
+    public static final double POSITION_EPSILON = 0.005;
+
+    private final ServoDevice servo;
+
+    private boolean positionSent = false;
+    private double lastPosition;
+
+    private int issuedWrites;
+    private int suppressedWrites;
+
+    public CachedServo(ServoDevice servo) {
+        this.servo = servo;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        if (positionSent && Math.abs(position - lastPosition) < POSITION_EPSILON) {
+            suppressedWrites++;
+            return;
+        }
+        servo.setPosition(position);
+        lastPosition = position;
+        positionSent = true;
+        issuedWrites++;
+    }
+
+    @Override
+    public double getPosition() {
+        return lastPosition;
+    }
+
+    public ServoDevice getServo() {
+        return servo;
+    }
+
+    public int getIssuedWrites() {
+        return issuedWrites;
+    }
+
+    public int getSuppressedWrites() {
+        return suppressedWrites;
+    }
+}
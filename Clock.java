@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Where commands get the time from. On the robot this is just System.nanoTime(); in simulation
+ * it is a {@link SimClock} that the simulator steps forward, so routines can run faster than
+ * real time.
+ */
+public interface Clock {
+
+    long nanoTime();
+
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+}
@@ -0,0 +1,198 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Classification boundaries for the beacon color sensor, fitted from readings taken with
+ * RGBTest and kept in a one-line file on the phone so the autons can load them at init.
+ *
+ * The file looks like: {@code colorcal 1 <red hue> <blue hue> <hue width> <min sat> <full sat> <min value>}
+ */
+public class ColorCalibration {
+
+    public static final String FILE = "/sdcard/FIRST/colorcal.txt";
+
+    private static final String HEADER = "colorcal";
+    private static final int VERSION = 1;
+
+    public final int redHue;
+    public final int blueHue;
+    public final int hueWidth;
+    public final double minSaturation;
+    public final double fullSaturation;
+    public final int minValue;
+
+    public ColorCalibration(int redHue, int blueHue, int hueWidth,
+                            double minSaturation, double fullSaturation, int minValue) {
+        this.redHue = redHue;
+        this.blueHue = blueHue;
+        this.hueWidth = hueWidth;
+        this.minSaturation = minSaturation;
+        this.fullSaturation = fullSaturation;
+        this.minValue = minValue;
+    }
+
+    public BeaconClassifier toClassifier() {
+        return new BeaconClassifier(redHue, blueHue, hueWidth, minSaturation, fullSaturation, minValue);
+    }
+
+    /**
+     * Running sums over every reading of one thing, however long it is read for: the hue as a
+     * direction (it wraps around), and the saturation and the brightest channel with their
+     * squares so the spread comes out too. Adding a reading never allocates.
+     */
+    public static class Readings {
+
+        private final BeaconClassifier hsv = new BeaconClassifier();
+
+        private int count;
+        private double hueX;
+        private double hueY;
+        private double saturationSum;
+        private double saturationSquares;
+        private double brightestSum;
+        private double brightestSquares;
+
+        public void add(int r, int g, int b) {
+            hsv.classify(r, g, b);
+            double angle = Math.toRadians(hsv.getHue());
+            hueX += Math.cos(angle);
+            hueY += Math.sin(angle);
+            double saturation = hsv.getSaturation();
+            saturationSum += saturation;
+            saturationSquares += saturation * saturation;
+            int brightest = Math.max(r, Math.max(g, b));
+            brightestSum += brightest;
+            brightestSquares += (double) brightest * brightest;
+            count++;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /** Circular mean of the hues, 0 to 359 degrees. */
+        public int getMeanHue() {
+            int hue = (int) Math.round(Math.toDegrees(Math.atan2(hueY, hueX)));
+            return hue < 0 ? hue + 360 : hue % 360;
+        }
+
+        public double getMeanSaturation() {
+            return count == 0 ? 0 : saturationSum / count;
+        }
+
+        public double getSaturationDeviation() {
+            return deviation(saturationSum, saturationSquares);
+        }
+
+        public double getMeanBrightest() {
+            return count == 0 ? 0 : brightestSum / count;
+        }
+
+        public double getBrightestDeviation() {
+            return deviation(brightestSum, brightestSquares);
+        }
+
+        private double deviation(double sum, double squares) {
+            if (count < 2) {
+                return 0;
+            }
+            return Math.sqrt(Math.max(0, (squares - sum * sum / count) / (count - 1)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d readings, hue %d, sat %.2f+-%.2f, brightest %.1f+-%.1f",
+                    count, getMeanHue(), getMeanSaturation(), getSaturationDeviation(),
+                    getMeanBrightest(), getBrightestDeviation());
+        }
+    }
+
+    /**
+     * Fits boundaries from readings of nothing (ambient), a red beacon half and a blue one.
+     * Each color gets the average hue of its readings; the hue width is half the gap between
+     * them so the two never overlap. The saturation cutoff goes halfway between ambient and the
+     * less saturated color, and anything not clearly brighter than ambient counts as nothing.
+     */
+    public static ColorCalibration fit(Readings ambient, Readings red, Readings blue) {
+        if (ambient.getCount() == 0 || red.getCount() == 0 || blue.getCount() == 0) {
+            throw new IllegalArgumentException("need readings of ambient, red and blue");
+        }
+
+        int redHue = red.getMeanHue();
+        int blueHue = blue.getMeanHue();
+
+        int gap = Math.abs(redHue - blueHue);
+        if (gap > 180) {
+            gap = 360 - gap;
+        }
+        if (gap < 30) {
+            throw new IllegalArgumentException("red and blue readings are too close in hue (" + gap + " deg)");
+        }
+        int hueWidth = Math.max(15, Math.min(60, gap / 2));
+
+        double colorSaturation = Math.min(red.getMeanSaturation(), blue.getMeanSaturation());
+        double ambientSaturation = ambient.getMeanSaturation();
+        double minSaturation = (ambientSaturation + colorSaturation) / 2;
+        double fullSaturation = Math.max(minSaturation + 0.05, colorSaturation * 0.9);
+
+        int minValue = (int) Math.ceil(ambient.getMeanBrightest()) + 1;
+
+        return new ColorCalibration(redHue, blueHue, hueWidth, minSaturation, fullSaturation, minValue);
+    }
+
+    public String format() {
+        return String.format(Locale.US, "%s %d %d %d %d %.3f %.3f %d", HEADER, VERSION,
+                redHue, blueHue, hueWidth, minSaturation, fullSaturation, minValue);
+    }
+
+    public static ColorCalibration parse(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length != 8 || !HEADER.equals(fields[0]) || Integer.parseInt(fields[1]) != VERSION) {
+            throw new IllegalArgumentException("not a color calibration: " + line);
+        }
+        return new ColorCalibration(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                Integer.parseInt(fields[4]), Double.parseDouble(fields[5]), Double.parseDouble(fields[6]),
+                Integer.parseInt(fields[7]));
+    }
+
+    public void save(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("could not create " + dir);
+        }
+        FileWriter out = new FileWriter(file);
+        try {
+            out.write(format());
+            out.write('\n');
+        } finally {
+            out.close();
+        }
+    }
+
+    public static ColorCalibration load(File file) throws IOException {
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException(file + " is empty");
+            }
+            return parse(line);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "red %d, blue %d, +-%d deg, sat %.2f-%.2f, min %d",
+                redHue, blueHue, hueWidth, minSaturation, fullSaturation, minValue);
+    }
+}
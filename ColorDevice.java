@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Raw channels of an RGB color sensor.
+ */
+public interface ColorDevice {
+
+    int red();
+
+    int green();
+
+    int blue();
+
+    int alpha();
+}
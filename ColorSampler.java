@@ -0,0 +1,192 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Keeps the last {@value #CAPACITY} color sensor readings in a ring buffer and a running mean
+ * and variance of red and blue over them, so we can tell the beacon color as soon as the
+ * readings agree instead of sampling for a fixed time.
+ *
+ * Everything is in primitive arrays sized up front; adding a reading never allocates.
+ *
+ * Each reading is run through a {@link BeaconClassifier} and scored red confidence minus blue
+ * confidence (-1 to 1). The color is RED if the mean score is above {@value #DECISION_MARGIN},
+ * BLUE if below minus that, NONE in between. It counts as confident once the mean is more than
+ * {@value #Z_SCORE} standard errors from the nearest boundary, with at least
+ * {@value #MIN_SAMPLES} readings.
+ *
+ * The sensor hands back the same cached value for several loop cycles between its own updates,
+ * so a reading identical to the last one is only counted once {@link #REPEAT_NANOS} have passed;
+ * otherwise one stale value could be counted five times with zero variance. For the same reason
+ * the variance used for the standard error never goes below the sensor's noise floor.
+ */
+public class ColorSampler {
+
+    public static final int CAPACITY = 32;
+    public static final int MIN_SAMPLES = 5;
+    public static final double Z_SCORE = 3.0;
+    public static final double DECISION_MARGIN = 0.25;
+
+    // longer than the sensor takes to come up with a new value
+    public static final long REPEAT_NANOS = 50000000L;
+
+    // score variance the sensor's noise gives even on a steady beacon (standard deviation 0.1)
+    public static final double MIN_SCORE_VARIANCE = 0.01;
+
+    private BeaconClassifier classifier;
+
+    private final long[] timeNanos = new long[CAPACITY];
+    private final int[] red = new int[CAPACITY];
+    private final int[] green = new int[CAPACITY];
+    private final int[] blue = new int[CAPACITY];
+    private final double[] score = new double[CAPACITY];
+
+    private int next;
+    private int size;
+
+    // sums over what's in the buffer, updated as readings come in and fall out
+    private long redSum;
+    private long redSquares;
+    private long blueSum;
+    private long blueSquares;
+    private double scoreSum;
+    private double scoreSquares;
+
+    public ColorSampler() {
+        this(new BeaconClassifier());
+    }
+
+    public ColorSampler(BeaconClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    /** Takes effect for readings added from now on; call clear() too to start fresh. */
+    public void setClassifier(BeaconClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    public void clear() {
+        next = 0;
+        size = 0;
+        redSum = 0;
+        redSquares = 0;
+        blueSum = 0;
+        blueSquares = 0;
+        scoreSum = 0;
+        scoreSquares = 0;
+    }
+
+    /** Adds a reading, unless it is a repeat of the last one (see REPEAT_NANOS). True if it counted. */
+    public boolean add(long nanos, int r, int g, int b) {
+        if (size > 0) {
+            int last = (next + CAPACITY - 1) % CAPACITY;
+            if (r == red[last] && g == green[last] && b == blue[last] && nanos - timeNanos[last] < REPEAT_NANOS) {
+                return false;
+            }
+        }
+
+        if (size == CAPACITY) {
+            // oldest reading falls out
+            redSum -= red[next];
+            redSquares -= (long) red[next] * red[next];
+            blueSum -= blue[next];
+            blueSquares -= (long) blue[next] * blue[next];
+            scoreSum -= score[next];
+            scoreSquares -= score[next] * score[next];
+        } else {
+            size++;
+        }
+
+        timeNanos[next] = nanos;
+        red[next] = r;
+        green[next] = g;
+        blue[next] = b;
+        redSum += r;
+        redSquares += (long) r * r;
+        blueSum += b;
+        blueSquares += (long) b * b;
+
+        classifier.classify(r, g, b);
+        double s = classifier.getConfidence(BeaconColor.RED) - classifier.getConfidence(BeaconColor.BLUE);
+        score[next] = s;
+        scoreSum += s;
+        scoreSquares += s * s;
+
+        next = (next + 1) % CAPACITY;
+        return true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** Reading i, oldest first. */
+    public long getTimeNanos(int i) {
+        return timeNanos[index(i)];
+    }
+
+    public int getRed(int i) {
+        return red[index(i)];
+    }
+
+    public int getGreen(int i) {
+        return green[index(i)];
+    }
+
+    public int getBlue(int i) {
+        return blue[index(i)];
+    }
+
+    public double getRedMean() {
+        return size == 0 ? 0 : (double) redSum / size;
+    }
+
+    public double getBlueMean() {
+        return size == 0 ? 0 : (double) blueSum / size;
+    }
+
+    public double getRedVariance() {
+        return variance(redSum, redSquares);
+    }
+
+    public double getBlueVariance() {
+        return variance(blueSum, blueSquares);
+    }
+
+    /** Mean red-minus-blue confidence, -1 (surely blue) to 1 (surely red). */
+    public double getScoreMean() {
+        return size == 0 ? 0 : scoreSum / size;
+    }
+
+    public BeaconColor getColor() {
+        double mean = getScoreMean();
+        if (mean > DECISION_MARGIN) {
+            return BeaconColor.RED;
+        } else if (mean < -DECISION_MARGIN) {
+            return BeaconColor.BLUE;
+        } else {
+            return BeaconColor.NONE;
+        }
+    }
+
+    public boolean isConfident() {
+        if (size < MIN_SAMPLES) {
+            return false;
+        }
+
+        double mean = getScoreMean();
+        double error = Math.sqrt(Math.max(variance(scoreSum, scoreSquares), MIN_SCORE_VARIANCE) / size);
+        double fromBoundary = Math.min(Math.abs(mean - DECISION_MARGIN), Math.abs(mean + DECISION_MARGIN));
+        return fromBoundary > Z_SCORE * error;
+    }
+
+    private double variance(double sum, double squares) {
+        if (size < 2) {
+            return 0;
+        }
+        double mean = sum / size;
+        return Math.max(0, (squares - sum * mean) / (size - 1));
+    }
+
+    private int index(int i) {
+        return (next - size + i + CAPACITY) % CAPACITY;
+    }
+}
@@ -0,0 +1,22 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * A unit of robot work that can be run by a {@link CommandScheduler}.
+ *
+ * Instead of blocking inside a while loop, a command does a little bit of work every time the
+ * scheduler ticks it, so several commands (a drive move, a color read, the shooter) can run
+ * side by side from a single loop.
+ *
+ * Lifecycle: start() once, then execute() every tick until isFinished() returns true,
+ * then end(false). If the command is cancelled (e.g. the opmode is stopped) end(true) is called.
+ */
+public interface Command {
+
+    void start();
+
+    void execute();
+
+    boolean isFinished();
+
+    void end(boolean interrupted);
+}
@@ -0,0 +1,55 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cooperative scheduler that ticks every running {@link Command} once per call to {@link #run()}.
+ *
+ * Nothing here blocks, so the opmode loop that calls run() stays in control and can call idle()
+ * between ticks instead of spinning a core in an empty while loop.
+ */
+public class CommandScheduler {
+
+    private final List<Command> running = new ArrayList<Command>();
+    private final List<Command> pending = new ArrayList<Command>();
+
+    public void schedule(Command command) {
+        pending.add(command);
+    }
+
+    /** Starts newly scheduled commands, ticks the running ones and ends the ones that are done. */
+    public void run() {
+        // start anything scheduled since the last tick
+        for (int i = 0; i < pending.size(); i++) {
+            Command command = pending.get(i);
+            command.start();
+            running.add(command);
+        }
+        pending.clear();
+
+        // index loop so we don't allocate an iterator every tick
+        for (int i = 0; i < running.size(); i++) {
+            Command command = running.get(i);
+            command.execute();
+            if (command.isFinished()) {
+                command.end(false);
+                running.remove(i);
+                i--;
+            }
+        }
+    }
+
+    /** Interrupts everything that is still running, e.g. when the driver presses STOP. */
+    public void cancelAll() {
+        for (int i = 0; i < running.size(); i++) {
+            running.get(i).end(true);
+        }
+        running.clear();
+        pending.clear();
+    }
+
+    public boolean isIdle() {
+        return running.isEmpty() && pending.isEmpty();
+    }
+}
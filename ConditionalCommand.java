@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Runs a command only if a condition holds at the moment this command starts.
+ * Used for things like re-pressing a beacon when the first press was the wrong color.
+ */
+public class ConditionalCommand implements Command {
+
+    public interface Condition {
+        boolean test();
+    }
+
+    private final Condition condition;
+    private final Command onTrue;
+    private boolean active;
+
+    public ConditionalCommand(Condition condition, Command onTrue) {
+        this.condition = condition;
+        this.onTrue = onTrue;
+    }
+
+    @Override
+    public void start() {
+        active = condition.test();
+        if (active) {
+            onTrue.start();
+        }
+    }
+
+    @Override
+    public void execute() {
+        if (active) {
+            onTrue.execute();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return !active || onTrue.isFinished();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (active) {
+            onTrue.end(interrupted);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Benchmarks for the code that runs every control cycle, all against the simulated robot:
+ *
+ *   java org.firstinspires.ftc.teamcode.ControlLoopBenchmarks [results.json]
+ *
+ * The Vuforia pose loop lives in {@link VuforiaPoseBenchmark} because it needs the SDK's
+ * matrix classes on the classpath.
+ */
+public class ControlLoopBenchmarks {
+
+    /** Sim robot set up the way the auton opmodes do it. */
+    static CraigLauncherHardware simRobot(SimHardwareMap sim) {
+        CraigLauncherHardware robot = new CraigLauncherHardware(sim.getClock());
+        robot.initDrive(sim);
+        robot.initColor(sim);
+        robot.resetEncoders();
+        robot.runUsingEncoders();
+        robot.voltageMonitor.sample();
+        robot.snapshot.update();
+        return robot;
+    }
+
+    /** encoderDrive's target computation: reading the start positions and sending targets/modes/powers. */
+    public static class EncoderDriveStart extends MicroBenchmark {
+        private CraigLauncherHardware robot;
+        private DriveCommand forward;
+        private DriveCommand turn;
+
+        @Override
+        public String getName() {
+            return "encoderDrive.start";
+        }
+
+        @Override
+        public void setup() {
+            SimHardwareMap sim = new SimHardwareMap();
+            robot = simRobot(sim);
+            forward = new DriveCommand(robot, CraigLauncherHardware.DRIVE_SPEED, 25, 25, 5.0);
+            turn = new DriveCommand(robot, CraigLauncherHardware.TURN_SPEED, 7, -7, 3.0);
+        }
+
+        @Override
+        public long op(int i) {
+            DriveCommand drive = (i & 1) == 0 ? forward : turn;
+            drive.start();
+            drive.end(false);
+            return robot.leftFront.getIssuedWrites();
+        }
+    }
+
+    /** One pass of the encoderDrive wait loop: snapshot the hardware and check if the move is done. */
+    public static class EncoderDriveWait extends MicroBenchmark {
+        private SimHardwareMap sim;
+        private CraigLauncherHardware robot;
+        private DriveCommand drive;
+
+        @Override
+        public String getName() {
+            return "encoderDrive.waitLoop";
+        }
+
+        @Override
+        public void setup() {
+            sim = new SimHardwareMap();
+            robot = simRobot(sim);
+            // a move far too long to ever finish, so every pass does the full check
+            drive = new DriveCommand(robot, CraigLauncherHardware.DRIVE_SPEED, 1e6, 1e6, 1e9);
+            drive.start();
+            sim.step(SimRunner.CYCLE_NANOS);
+        }
+
+        @Override
+        public long op(int i) {
+            robot.snapshot.update();
+            return drive.isFinished() ? 1 : robot.snapshot.getCycle();
+        }
+    }
+
+    /** beaconDetect's per-reading HSV classification over a spread of readings. */
+    public static class BeaconClassify extends MicroBenchmark {
+        private final int[] red = new int[256];
+        private final int[] green = new int[256];
+        private final int[] blue = new int[256];
+        private final BeaconClassifier classifier = new BeaconClassifier();
+
+        @Override
+        public String getName() {
+            return "beaconDetect.classify";
+        }
+
+        @Override
+        public void setup() {
+            Random random = new Random(310);
+            for (int i = 0; i < red.length; i++) {
+                red[i] = random.nextInt(12);
+                green[i] = random.nextInt(12);
+                blue[i] = random.nextInt(12);
+            }
+        }
+
+        @Override
+        public long op(int i) {
+            int k = i & 255;
+            return classifier.classify(red[k], green[k], blue[k]).ordinal();
+        }
+    }
+
+    /** One teleop loop: drive, slides, cap ball servos and shooter mapped onto sim hardware. */
+    public static class TeleopIteration extends MicroBenchmark {
+        private final CraigLauncherControls.Input[] inputs = new CraigLauncherControls.Input[256];
+        private CraigLauncherControls controls;
+
+        @Override
+        public String getName() {
+            return "teleop.iteration";
+        }
+
+        @Override
+        public void setup() {
+            controls = new CraigLauncherControls(new SimHardwareMap());
+            controls.init();
+
+            // sticks sweep slowly and buttons change now and then, like a real driver
+            for (int i = 0; i < inputs.length; i++) {
+                CraigLauncherControls.Input input = new CraigLauncherControls.Input();
+                input.leftStickY = Math.sin(i * 0.05);
+                input.rightStickY = Math.cos(i * 0.05);
+                input.slidesDown = (i / 64) % 4 == 1;
+                input.slidesUp = (i / 64) % 4 == 2;
+                input.capBall = (i / 32) % 2 == 1;
+                input.shoot = (i / 16) % 4 == 0;
+                input.slowDrive = i % 128 == 0;
+                inputs[i] = input;
+            }
+        }
+
+        @Override
+        public long op(int i) {
+            controls.readSensors();
+            controls.apply(inputs[i & 255]);
+            return controls.getIssuedWrites();
+        }
+    }
+
+    /** One odometry update from four encoder readings, curving gently like most of our moves. */
+    public static class OdometryUpdate extends MicroBenchmark {
+        private final Odometry odometry = new Odometry();
+
+        @Override
+        public String getName() {
+            return "odometry.update";
+        }
+
+        @Override
+        public long op(int i) {
+            int left = i * 12;
+            int right = i * 13;
+            odometry.update(left, left, right, right);
+            return (long) odometry.getX();
+        }
+    }
+
+    /** One flywheel speed update at shooting speed, the encoder ticking over at about the right rate. */
+    public static class FlywheelUpdate extends MicroBenchmark {
+        private FlywheelController flywheel;
+
+        @Override
+        public String getName() {
+            return "flywheel.update";
+        }
+
+        @Override
+        public void setup() {
+            SimMotor motor = new SimMotor(false);
+            flywheel = new FlywheelController(new MotorDevice[] { motor }, null);
+            flywheel.setTargetRpm(FlywheelController.SHOT_RPM);
+        }
+
+        @Override
+        public long op(int i) {
+            // 24 counts per 10 ms cycle is about SHOT_RPM
+            flywheel.update(i * 24, i * SimRunner.CYCLE_NANOS);
+            return (long) (flywheel.getPower() * 1000);
+        }
+    }
+
+    public static MicroBenchmark[] all() {
+        return new MicroBenchmark[] {
+                new EncoderDriveStart(),
+                new EncoderDriveWait(),
+                new BeaconClassify(),
+                new TeleopIteration(),
+                new OdometryUpdate(),
+                new FlywheelUpdate()
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        BenchmarkRunner.runAll(all(), args.length > 0 ? args[0] : null);
+    }
+}
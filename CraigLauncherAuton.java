@@ -2,51 +2,66 @@ package org.firstinspires.ftc.teamcode;
 
 
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-import com.qualcomm.robotcore.hardware.ColorSensor;
-import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.DeviceInterfaceModule;
-import com.qualcomm.robotcore.hardware.DigitalChannelController;
 import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.RobotLog;
+import com.vuforia.HINT;
+import com.vuforia.Vuforia;
+
+import org.firstinspires.ftc.robotcore.external.ClassFactory;
+import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackables;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
 
 
 public abstract class CraigLauncherAuton extends LinearOpMode {
 
     /* -------------- CONSTANTS ---------------- */
 
-    public static final double     COUNTS_PER_MOTOR_REV    = 1120 ;    // AndyMark 40s
-    public static final double     DRIVE_GEAR_REDUCTION    = 1.0 ;     // This is < 1.0 if geared UP
-    public static final double     WHEEL_DIAMETER_INCHES   = 4.0 ;     // For figuring circumference
-    public static final double     COUNTS_PER_INCH         = (COUNTS_PER_MOTOR_REV * DRIVE_GEAR_REDUCTION) /
-                                                        (WHEEL_DIAMETER_INCHES * 3.1415);
-    public static final double     DRIVE_SPEED             = 0.6;
-    public static final double     TURN_SPEED              = 0.4;
+    // These live in the off-robot classes now so routines can use them off the robot
+    public static final double     COUNTS_PER_INCH         = DriveKinematics.COUNTS_PER_INCH;
+    public static final double     DRIVE_SPEED             = CraigLauncherHardware.DRIVE_SPEED;
+    public static final double     TURN_SPEED              = CraigLauncherHardware.TURN_SPEED;
+
+    public static final String     VUFORIA_LICENSE_KEY     = "ATHlAS7/////AAAAGSrlghNuCkIdu0Y/Eqnxz9oejoRzibKYqWJYEJik+9ImrFuJaDs2/WAm5ovuC4iV/m4DHM3WWgAl9pI5MQULOsKslna/+bYWzcbzpzak4NMtWuGLnnJYCeH8vP2x8fC8R0I+Odvd4vhnJdSa3P6C87oTqtVSX0sZcVOvALmUpCJcSFHAqshW0F7XziW89qM4tBDQoKgNCkbFNmKeRnKa4j4Vfyk0RSNXc/79shIk8Pu4j8krsBComGYTx4FKsClnfgZYOp51uhMg/yoEHfpy0XMrCOBZUYIyTVvOsCtC9GzLAOLoxEnunRRjagCKni32kkrH07slhuiCqpNBJQ02y8qZFChTjt5i+ZZwnzaWCFSf";
 
-    // For detecting color
-    public static final double THRESHOLD = 2;
+    // how often the init telemetry is refreshed while we wait on setup tasks
+    public static final long       INIT_POLL_MILLIS        = 50;
 
     /* ----------------------------------------- */
 
 
     /* ---------- HARDWARE MAP ------------ */
-    protected DcMotor leftFront;
-    protected DcMotor leftBack;
-    protected DcMotor rightFront;
-    protected DcMotor rightBack;
-
-    protected DcMotor shooter1;
-    protected DcMotor shooter2;
-
-    protected ColorSensor sensorRGB;
-    protected DeviceInterfaceModule cdim;
-
-    // we assume that the LED pin of the RGB sensor is connected to
-    // digital port 5 (zero indexed).
-    public static final int LED_CHANNEL = 5;
+    // motors, sensors and the per-cycle snapshot, see CraigLauncherHardware
+    protected CraigLauncherHardware robot = new CraigLauncherHardware(Clock.SYSTEM);
 
     /* ------------------------------------- */
 
     // Instance vars
     protected ElapsedTime runtime = new ElapsedTime();
+    protected CommandScheduler scheduler = new CommandScheduler();
+
+    // How fast the command loop actually runs
+    protected LoopStats loopStats = new LoopStats("auton");
+
+    // setup steps run side by side, see setup(), setupColor(), setupShooter(), setupVision() and waitForInit()
+    protected InitTasks init = new InitTasks(Clock.SYSTEM);
+    private volatile String colorStatus;
+
+    // every control cycle goes to the log, see FlightRecorder; null if the log couldn't be opened
+    protected volatile FlightRecorder recorder;
+    private final FlightRecord record = new FlightRecord();
+
+    // threads the init tasks start (voltage, log, camera) and shutdown() stops; an init task still
+    // running when shutdown() comes round checks stopped under the lock and starts nothing
+    private final Object threadLock = new Object();
+    private boolean stopped;
+    private VuforiaTrackables targets;
+    private VisionWorker visionWorker;
+    private BeaconVision beaconVision;
 
 
     /* ----------- METHODS ------------ */
@@ -56,60 +71,272 @@ public abstract class CraigLauncherAuton extends LinearOpMode {
     public abstract void runRoutine(long delay);
 
 
-    protected void setup() {
-        leftFront = hardwareMap.dcMotor.get("leftFront");
-        leftBack = hardwareMap.dcMotor.get("leftBack");
-        rightFront = hardwareMap.dcMotor.get("rightFront");
-        rightBack = hardwareMap.dcMotor.get("rightBack");
+    /*
+     *  Looks up the drive motors and resets the encoders, on an init thread. Returns the task
+     *  so the opmode can wait on it with waitForInit().
+     */
+    protected InitTasks.Task setup() {
+        final DeviceMap devices = new SdkDeviceMap(hardwareMap);
+        return init.add("drive", new Runnable() {
+            @Override
+            public void run() {
+                robot.initDrive(devices);
+                synchronized (threadLock) {
+                    if (stopped) {
+                        return;
+                    }
+                    robot.voltageMonitor.start();
+                }
+                robot.resetEncoders();
+                Thread.yield();
+                robot.runUsingEncoders();
+                openRecorder();
+            }
+        });
+    }
 
-        // shooter1 = hardwareMap.dcMotor.get("shooter1");
-        // shooter2 = hardwareMap.dcMotor.get("shooter2");
+    /* Sets up the color sensor and loads its calibration, on an init thread. */
+    protected InitTasks.Task setupColor() {
+        final DeviceMap devices = new SdkDeviceMap(hardwareMap);
+        return init.add("color", new Runnable() {
+            @Override
+            public void run() {
+                robot.initColor(devices);
+                colorStatus = loadColorCalibration();
+            }
+        });
+    }
 
-        leftFront.setDirection(DcMotor.Direction.FORWARD); // Set to REVERSE if using AndyMark motors
-        leftBack.setDirection(DcMotor.Direction.FORWARD);
-        rightFront.setDirection(DcMotor.Direction.REVERSE);// Set to FORWARD if using AndyMark motors
-        rightBack.setDirection(DcMotor.Direction.REVERSE);
+    /* Sets up the shooter motors and the flywheel speed control, on an init thread. */
+    protected InitTasks.Task setupShooter() {
+        final DeviceMap devices = new SdkDeviceMap(hardwareMap);
+        return init.add("shooter", new Runnable() {
+            @Override
+            public void run() {
+                robot.initShooter(devices);
+            }
+        });
+    }
 
-        // Send telemetry message to signify robot waiting;
-        telemetry.addData("Status", "Resetting Encoders");    //
-        telemetry.update();
+    /*
+     *  Starts Vuforia with all four targets, then the VisionWorker (poses for the robot's
+     *  PoseEstimator) and BeaconVision (beacon colors for BeaconAim). Takes a few seconds, so
+     *  routines that can do without the camera shouldn't wait on it; whatever it publishes is
+     *  used once it's running.
+     */
+    protected InitTasks.Task setupVision() {
+        return init.add("vision", new Runnable() {
+            @Override
+            public void run() {
+                startVision();
+            }
+        });
+    }
 
-        leftFront.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        rightFront.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        leftBack.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        rightBack.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-        idle();
-
-        leftFront.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        rightFront.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        leftBack.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        rightBack.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-
-        // Send telemetry message to indicate successful Encoder reset
-        telemetry.addData("Path0",  "Starting at %7d :%7d",
-                leftFront.getCurrentPosition(),
-                rightFront.getCurrentPosition(),
-                leftBack.getCurrentPosition(),
-                rightBack.getCurrentPosition());
+    /*
+     *  Blocks until the given setup tasks are done (the rest keep going in the background),
+     *  showing progress on the Driver Station, then takes the first hardware read. Call this
+     *  before waitForStart(), inside the try whose finally calls shutdown(). Throws if one of
+     *  the tasks we need failed; returns early if the opmode is stopped first.
+     *
+     *  The robot fields the tasks assign (motors, sensors, voltage monitor, classifier) are plain
+     *  fields. A task's writes happen-before InitTasks.allDone() sees it finished (see
+     *  InitTasks.Task#isDone), so they are safe to read on this thread once this returns, but not
+     *  before. Anything a task starts that shutdown() has to stop goes through threadLock.
+     */
+    protected void waitForInit(InitTasks.Task... needed) {
+        while (!isStopRequested() && !InitTasks.allDone(needed)) {
+            telemetry.addData("Init", init.summary());
+            telemetry.update();
+            sleep(INIT_POLL_MILLIS);
+        }
+        init.shutdown();
+        if (!InitTasks.allDone(needed)) {
+            // stopped during init; the tasks may still be writing to robot
+            return;
+        }
+
+        InitTasks.Task failed = InitTasks.firstFailure(needed);
+        if (failed != null) {
+            throw new RuntimeException("init " + failed.getName() + " failed", failed.getFailure());
+        }
+
+        String summary = String.format(Locale.US, "%s, ready after %.0f ms", init.summary(), init.getElapsedMillis());
+        RobotLog.i("init: " + summary);
+        telemetry.addData("Init", summary);
+        if (colorStatus != null) {
+            telemetry.addData("Color", colorStatus);
+        }
+
+        readHardware();
+        if (robot.leftFront != null) {
+            // Send telemetry message to indicate successful Encoder reset
+            telemetry.addData("Path0",  "Starting at %7d :%7d",
+                    robot.snapshot.getPosition(HardwareSnapshot.LEFT_FRONT),
+                    robot.snapshot.getPosition(HardwareSnapshot.RIGHT_FRONT),
+                    robot.snapshot.getPosition(HardwareSnapshot.LEFT_BACK),
+                    robot.snapshot.getPosition(HardwareSnapshot.RIGHT_BACK));
+        }
         telemetry.update();
     }
 
-    protected void setupColor() {
-        cdim = hardwareMap.deviceInterfaceModule.get("dim");
+    /* Boundaries fitted by RGBTest, if it has been run on this phone. Returns what to show. */
+    private String loadColorCalibration() {
+        File file = new File(ColorCalibration.FILE);
+        if (!file.exists()) {
+            return "not calibrated, run RGBTest";
+        }
+        try {
+            ColorCalibration calibration = ColorCalibration.load(file);
+            robot.setColorCalibration(calibration);
+            return calibration.toString();
+        } catch (IOException e) {
+            RobotLog.e("ColorCalibration: could not load " + ColorCalibration.FILE + ": " + e.getMessage());
+            return "calibration unreadable, using defaults";
+        }
+    }
+
+    private void openRecorder() {
+        try {
+            FlightRecorder opened = FlightRecorder.open(getClass().getSimpleName());
+            synchronized (threadLock) {
+                if (stopped) {
+                    opened.stop();
+                    return;
+                }
+                opened.start();
+                recorder = opened;
+            }
+        } catch (IOException e) {
+            RobotLog.e("FlightRecorder: " + e.getMessage());
+        }
+    }
+
+    private void startVision() {
+        // same camera and phone mount as VuforiaTest
+        VuforiaLocalizer.Parameters parameters = new VuforiaLocalizer.Parameters(com.qualcomm.ftcrobotcontroller.R.id.cameraMonitorViewId);
+        parameters.vuforiaLicenseKey = VUFORIA_LICENSE_KEY;
+        parameters.cameraDirection = VuforiaLocalizer.CameraDirection.BACK;
+        VuforiaLocalizer vuforia = ClassFactory.createVuforiaLocalizer(parameters);
+        Vuforia.setHint(HINT.HINT_MAX_SIMULTANEOUS_IMAGE_TARGETS, 4);
+
+        OpenGLMatrix phoneLocationOnRobot = OpenGLMatrix.translation(0, 18 * FieldTargets.MM_PER_INCH / 2, 0);
+        VuforiaTrackables loaded = FieldTargets.load(vuforia, phoneLocationOnRobot, parameters.cameraDirection);
+
+        synchronized (threadLock) {
+            if (stopped) {
+                // the opmode finished before Vuforia was up
+                return;
+            }
+            targets = loaded;
+            targets.activate();
+            visionWorker = new VisionWorker(targets, phoneLocationOnRobot, robot.clock, robot.visionPoses);
+            visionWorker.start();
+            beaconVision = new BeaconVision(vuforia, targets, robot.beaconReading, robot.clock);
+            beaconVision.start();
+        }
+    }
+
+    /*
+     *  Stops the background threads started during init (camera, voltage, log). Call it from a
+     *  finally around waitForInit() and the routine, so they stop however the opmode ends.
+     */
+    protected void shutdown() {
+        synchronized (threadLock) {
+            stopped = true;
+            stopVision();
+            if (robot.voltageMonitor != null) {
+                robot.voltageMonitor.stop();
+            }
+        }
+        if (robot.flywheel != null && robot.flywheel.getShots() > 0) {
+            RobotLog.i("flywheel: %d shots, recovery %.0f ms mean, %.0f ms max", robot.flywheel.getShots(),
+                    robot.flywheel.getMeanRecoveryMillis(), robot.flywheel.getMaxRecoveryMillis());
+        }
+        if (recorder != null) {
+            try {
+                recorder.stop();
+                RobotLog.i("FlightRecorder: %d records, %d dropped", recorder.getWritten(), recorder.getDropped());
+            } catch (IOException e) {
+                RobotLog.e("FlightRecorder: " + e.getMessage());
+            }
+            recorder = null;
+        }
+    }
+
+    /* Stops the camera threads, if setupVision() got as far as starting them. Holding threadLock. */
+    private void stopVision() {
+        if (targets != null) {
+            beaconVision.stop();
+            visionWorker.stop();
+            targets.deactivate();
+            targets = null;
+        }
+    }
 
-        cdim.setDigitalChannelMode(LED_CHANNEL, DigitalChannelController.Mode.OUTPUT);
 
-        // get a reference to our ColorSensor object.
-        sensorRGB = hardwareMap.colorSensor.get("sensor_color");
+    protected double getVoltage() {
+        return robot.snapshot.getVoltage();
+    }
 
-        // turn the LED on in the beginning, just so user will know that the sensor is active.
-        cdim.setDigitalChannelState(LED_CHANNEL, false);
+    /*
+     *  Reads encoders, busy flags, voltage and color once for this control cycle.
+     *  Commands read from the snapshot instead of the hardware. Also keeps the field
+     *  pose estimate (robot.poseEstimator.getPose()) current.
+     */
+    protected void readHardware() {
+        robot.update();
     }
 
+    /*
+     *  Runs a command (or a whole routine built out of commands) to completion.
+     *  The scheduler is ticked once per loop and we idle() in between instead of
+     *  spinning, so other threads on the phone get a chance to run.
+     */
+    protected void runCommand(Command command) {
+        scheduler.schedule(command);
+        loopStats.restart();
+        while (opModeIsActive() && !scheduler.isIdle()) {
+            loopStats.mark();
+            readHardware();
+            scheduler.run();
+            recordCycle(command);
+            idle();
+        }
 
-    private double getVoltage() {
-        double voltage = hardwareMap.voltageSensor.get("right").getVoltage();
-        return voltage;
+        // make sure nothing is left driving if the opmode was stopped
+        scheduler.cancelAll();
+    }
+
+    /*
+     *  Logs what we read and what we sent this cycle. The step is where we are in the routine,
+     *  when the routine is a SequentialCommand (they all are).
+     */
+    protected void recordCycle(Command command) {
+        if (recorder == null) {
+            return;
+        }
+        int step = command instanceof SequentialCommand ? ((SequentialCommand) command).getIndex() : 0;
+        record.capture(robot, step);
+        recorder.append(record);
+    }
+
+    /*
+     *  Shows the loop timing on the Driver Station and saves it to the phone.
+     *  Called once at the end of runOpMode().
+     */
+    protected void reportLoopStats() {
+        telemetry.addData("Loop", loopStats.summary());
+        telemetry.addData("Init", init.summary());
+        LoopStats.save(getClass().getSimpleName(), loopStats);
+
+        // and how long each profiled move took to come to rest
+        SettleLog settleLog = robot.settleLog;
+        telemetry.addData("Settle", settleLog.summary());
+        for (int i = 0; i < settleLog.getStoredCount(); i++) {
+            RobotLog.i("settle move %d: %.0f ms%s", i + 1, settleLog.getSettleMs(i),
+                    settleLog.wasCapped(i) ? " (hit cap)" : "");
+        }
     }
 
     /*
@@ -123,115 +350,50 @@ public abstract class CraigLauncherAuton extends LinearOpMode {
     protected void encoderDrive(double speed,
                              double leftInches, double rightInches,
                              double timeoutS) {
-        int newLeftFrontTarget;
-        int newRightFrontTarget;
-        int newLeftBackTarget;
-        int newRightBackTarget;
-
-        double swerve = (getVoltage() - 10) * .01 + 1;
-
         // Ensure that the opmode is still active
         if (opModeIsActive()) {
+            runCommand(Routines.drive(robot, speed, leftInches, rightInches, timeoutS));
+        }
+    }
 
-            // Determine new target position, and pass to motor controller
-            newLeftFrontTarget = leftFront.getCurrentPosition() + (int)(leftInches * COUNTS_PER_INCH);
-            newRightFrontTarget = rightFront.getCurrentPosition() + (int)(rightInches * COUNTS_PER_INCH * swerve);
-            newLeftBackTarget = leftBack.getCurrentPosition() + (int)(leftInches * COUNTS_PER_INCH);
-            newRightBackTarget = rightBack.getCurrentPosition() + (int)(rightInches * COUNTS_PER_INCH * swerve);
-            leftFront.setTargetPosition(newLeftFrontTarget);
-            rightFront.setTargetPosition(newRightFrontTarget);
-            leftBack.setTargetPosition(newLeftBackTarget);
-            rightBack.setTargetPosition(newRightBackTarget);
-
-            // Turn On RUN_TO_POSITION
-            leftFront.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            rightFront.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            leftBack.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            rightBack.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-
-            // reset the timeout time and start motion.
-            runtime.reset();
-            leftFront.setPower(Math.abs(speed));
-            rightFront.setPower(Math.abs(speed) * swerve);
-            leftBack.setPower(Math.abs(speed));
-            rightBack.setPower(Math.abs(speed) * swerve);
-
-            // keep looping while we are still active, and there is time left, and both motors are running.
-            while (opModeIsActive() &&
-                    (runtime.seconds() < timeoutS) &&
-                    (leftFront.isBusy() && rightFront.isBusy() && leftBack.isBusy() && rightBack.isBusy())) {
-
-                // Display it for the driver.
-                /*
-                telemetry.addData("Path1",  "Running to %7d :%7d", newLeftFrontTarget,  newRightFrontTarget,
-                        newLeftBackTarget, newRightBackTarget);
-                telemetry.addData("Path2",  "Running at %7d :%7d",
-                        leftFront.getCurrentPosition(),
-                        rightFront.getCurrentPosition(),
-                        leftBack.getCurrentPosition(),
-                        rightBack.getCurrentPosition());
-                telemetry.update();
-                */
-            }
-
-            // Stop all motion;
-            leftFront.setPower(0);
-            rightFront.setPower(0);
-            leftBack.setPower(0);
-            rightBack.setPower(0);
-
-            // Turn off RUN_TO_POSITION
-            leftFront.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            rightFront.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            leftBack.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            rightBack.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-
-            sleep(250);   // optional pause after each move
+    /*
+     *  Same relative move, but following a motion profile instead of a fixed speed.
+     *  See ProfiledDriveCommand.
+     */
+    protected void profiledDrive(double leftInches, double rightInches, double timeoutS) {
+        if (opModeIsActive()) {
+            runCommand(Routines.profiledDrive(robot, leftInches, rightInches, timeoutS));
         }
     }
 
+    /*
+     *  Spins the flywheel up to shooting speed and returns once it's there (or the wait times
+     *  out), so whatever comes next can shoot straight away. Routines that shoot should wait on
+     *  setupShooter() during init; otherwise the motors are looked up here.
+     */
     protected void startShoot() {
-        shooter1.setPower(1);
-        shooter2.setPower(1);
+        if (robot.flywheel == null) {
+            robot.initShooter(new SdkDeviceMap(hardwareMap));
+        }
+        runCommand(new SequentialCommand(
+                new ShooterCommand(robot, FlywheelController.SHOT_RPM),
+                new FlywheelReadyCommand(robot)));
     }
 
     protected void stopShoot() {
-        shooter1.setPower(0);
-        shooter2.setPower(0);
-    }
-
-    protected String beaconDetect() {
-        runtime.reset();
-        int[] red = new int[2];
-        int[] blue = new int[2];
-
-        while (opModeIsActive() && (runtime.seconds() < 2.0))  {
-
-            // convert the RGB values to HSV values.
-            // Color.RGBToHSV((sensorRGB.red() * 255) / 800, (sensorRGB.green() * 255) / 800, (sensorRGB.blue() * 255) / 800, hsvValues);
-
-            // send the info back to driver station using telemetry function.
-            // telemetry.addData("Clear", sensorRGB.alpha());
-            red[0] = sensorRGB.red();
-            blue[0] = sensorRGB.blue();
+        if (robot.flywheel != null) {
+            runCommand(new ShooterCommand(robot, 0));
         }
+    }
 
-        red[1] = sensorRGB.red();
-        blue[1] = sensorRGB.blue();
-
-        double blueAvg = (blue[0] + blue[1]) / 2;;
-        double redAvg = (red[0] + red[1]) / 2;
+    protected BeaconColor beaconDetect() {
+        BeaconDetectCommand detect = new BeaconDetectCommand(robot);
+        runCommand(detect);
 
-        telemetry.addData("Blue", blueAvg);
-        telemetry.addData("Red", redAvg);
+        telemetry.addData("Blue", detect.getBlueAverage());
+        telemetry.addData("Red", detect.getRedAverage());
 
-        if (blueAvg * THRESHOLD < redAvg) {
-            return "red";
-        } else if (redAvg * THRESHOLD < blueAvg) {
-            return "blue";
-        } else {
-            return "null";
-        }
+        return detect.getColor();
     }
 
 }
@@ -0,0 +1,299 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * The teleop's driver controls: turns one loop's worth of gamepad input into motor powers and
+ * servo positions.
+ *
+ * Pulled out of CraigLauncherTeleop so the same mapping can run against simulated hardware
+ * (benchmarks, replays). The teleop fills in an {@link Input} from the gamepads every loop and
+ * calls {@link #apply(Input)}.
+ *
+ * Joystick Map
+ * DRIVER
+ * Joysticks - drivetrain
+ * Linear slides down (hold)- left trigger
+ * Linear slides up (hold) - right trigger
+ * Cap ball servos (hold) - left bumper
+ * Cap ball mechanism release - B
+ * Shooter (hold) - A, spins up to FlywheelController.SHOT_RPM and holds it there
+ * Slow drive - X
+ * OPERATOR
+ * same except no driving capability
+ */
+public class CraigLauncherControls {
+
+    /** One loop's worth of driver input. Buttons are already OR'ed across both gamepads. */
+    public static class Input {
+        public double leftStickY;       // gamepad1 only, negative when pushed forwards
+        public double rightStickY;
+        public boolean slidesDown;      // left trigger
+        public boolean slidesUp;        // right trigger
+        public boolean capBall;         // left bumper
+        public boolean capBallRelease;  // B
+        public boolean shoot;           // A
+        public boolean slowDrive;       // X
+    }
+
+    private final CachedMotor leftFront;
+    private final CachedMotor leftBack;
+    private final CachedMotor rightFront;
+    private final CachedMotor rightBack;
+
+    private final CachedMotor slides1;
+    private final CachedMotor slides2;
+
+    private final CachedServo capBallRight;
+    private final CachedServo capBallLeft;
+
+    private final CachedMotor shooter1;
+    private final FlywheelController flywheel;
+
+    private final CachedServo rotate;
+
+    private final CachedMotor[] motors;
+    private final CachedServo[] servos;
+
+    // dead reckoning from the drive encoders, see readSensors()
+    private final Odometry odometry = new Odometry();
+    private final int[] position = new int[4];
+
+    // battery voltage for the flywheel feedforward; the teleop starts its thread
+    private final VoltageMonitor voltageMonitor;
+
+    // when this loop's readings were taken and the shooter encoder, see readSensors()
+    private final Clock clock;
+    private long nanos;
+    private int shooterPosition;
+
+    private boolean slowDrive = false;
+    private boolean slowDriveDebounce = false;
+    private double slowSpeed = 0.5;
+
+    /*
+     * Note that the strings used here as parameters to 'get' must correspond to the names
+     * assigned during the robot configuration step (using the FTC Robot Controller app on the phone).
+     */
+    public CraigLauncherControls(DeviceMap devices) {
+        this(devices, Clock.SYSTEM);
+    }
+
+    public CraigLauncherControls(DeviceMap devices, Clock clock) {
+        this.clock = clock;
+
+        // Everything is wrapped so we only write to the bus when a value actually changes
+        leftFront = new CachedMotor(devices.motor("leftFront"));
+        leftBack = new CachedMotor(devices.motor("leftBack"));
+        rightFront = new CachedMotor(devices.motor("rightFront"));
+        rightBack = new CachedMotor(devices.motor("rightBack"));
+
+        slides1 = new CachedMotor(devices.motor("slides1"));
+        slides2 = new CachedMotor(devices.motor("slides2"));
+
+        capBallRight = new CachedServo(devices.servo("capBallRight"));
+        capBallLeft = new CachedServo(devices.servo("capBallLeft"));
+
+        shooter1 = new CachedMotor(devices.motor("shooter1"));
+
+        voltageMonitor = new VoltageMonitor(devices.voltageSensor("right"), clock);
+        flywheel = new FlywheelController(new MotorDevice[] { shooter1 }, voltageMonitor);
+
+        rotate = new CachedServo(devices.servo("rotate"));
+
+        /*
+        hopper = new CachedServo(devices.servo("hopper"));
+        */
+
+        motors = new CachedMotor[] { leftFront, leftBack, rightFront, rightBack, slides1, slides2, shooter1 };
+        servos = new CachedServo[] { capBallRight, capBallLeft, rotate };
+    }
+
+    /** Motor directions and starting servo positions; call once during init. */
+    public void init() {
+        // "Reverse" the motor that runs backwards when connected directly to the battery
+        leftFront.setReversed(false); // Set to true if using AndyMark motors
+        leftBack.setReversed(false);
+        rightFront.setReversed(true);// Set to false if using AndyMark motors
+        rightBack.setReversed(true);
+
+        rotate.setPosition(0.1);
+        capBallLeft.setPosition(1);
+        capBallRight.setPosition(0);
+    }
+
+    public void apply(Input input) {
+        // Run wheels in tank mode (note: The joystick goes negative when pushed forwards)
+        if (slowDrive) {
+            leftFront.setPower(-input.leftStickY * slowSpeed);
+            leftBack.setPower(-input.leftStickY * slowSpeed);
+            rightFront.setPower(-input.rightStickY * slowSpeed);
+            rightBack.setPower(-input.rightStickY * slowSpeed);
+        } else {
+            leftFront.setPower(-input.leftStickY);
+            leftBack.setPower(-input.leftStickY);
+            rightFront.setPower(-input.rightStickY);
+            rightBack.setPower(-input.rightStickY);
+        }
+
+
+        // linear slides down
+        if (input.slidesDown) {
+            slides1.setPower(-1);
+            slides2.setPower(1);
+        } else if (input.slidesUp) {
+            slides1.setPower(1);
+            slides2.setPower(-1);
+        } else {
+            slides1.setPower(0);
+            slides2.setPower(0);
+        }
+
+        // cap ball servo
+        if (input.capBall) {
+            capBallLeft.setPosition(0);
+            capBallRight.setPosition(1);
+        } else {
+            capBallLeft.setPosition(1);
+            capBallRight.setPosition(0);
+        }
+
+        /*
+        // hopper servo
+        if (input.capBall) {
+            hopper.setPosition(1);
+        } else {
+            hopper.setPosition(0.5);
+        }
+        */
+
+        // cap ball rotate
+        if (input.capBallRelease) {
+            rotate.setPosition(0.7);
+        }
+
+        // shooter, held at speed while the button is down; this cycle's reading goes with the
+        // target it was read for, so a new target takes over next cycle (stopping is immediate)
+        flywheel.update(shooterPosition, nanos);
+        flywheel.setTargetRpm(input.shoot ? FlywheelController.SHOT_RPM : 0);
+
+        // slow drive
+        if (input.slowDrive) {
+            slowDriveDebounce = true;
+        } else {
+            if (slowDriveDebounce) {
+                slowDrive = !slowDrive;
+                slowDriveDebounce = false;
+            }
+        }
+    }
+
+    /*
+     * Everything the loop reads, once per loop: takes the loop's timestamp (which the flywheel
+     * speed is worked out from), tells the voltage monitor how hard the motors are working, reads
+     * the four drive encoders and moves the odometry pose, and reads the shooter encoder while the
+     * flywheel runs. Four bus reads (five with the shooter), so the teleop calls it once per loop
+     * rather than from inside apply().
+     */
+    public void readSensors() {
+        nanos = clock.nanoTime();
+        voltageMonitor.setLoad(getMotorLoad());
+        position[HardwareSnapshot.LEFT_FRONT] = leftFront.getCurrentPosition();
+        position[HardwareSnapshot.RIGHT_FRONT] = rightFront.getCurrentPosition();
+        position[HardwareSnapshot.LEFT_BACK] = leftBack.getCurrentPosition();
+        position[HardwareSnapshot.RIGHT_BACK] = rightBack.getCurrentPosition();
+        odometry.update(position[HardwareSnapshot.LEFT_FRONT], position[HardwareSnapshot.LEFT_BACK],
+                position[HardwareSnapshot.RIGHT_FRONT], position[HardwareSnapshot.RIGHT_BACK]);
+        if (flywheel.getTargetRpm() != 0) {
+            shooterPosition = shooter1.getCurrentPosition();
+        }
+    }
+
+    /*
+     * Fills in a flight record with this loop's input, the time and encoders from the last
+     * readSensors() and the powers just applied. The caller sets the cycle.
+     */
+    public void capture(FlightRecord record, Input input) {
+        record.timestampNanos = nanos;
+        for (int i = 0; i < position.length; i++) {
+            record.position[i] = position[i];
+        }
+        record.power[HardwareSnapshot.LEFT_FRONT] = (float) leftFront.getPower();
+        record.power[HardwareSnapshot.RIGHT_FRONT] = (float) rightFront.getPower();
+        record.power[HardwareSnapshot.LEFT_BACK] = (float) leftBack.getPower();
+        record.power[HardwareSnapshot.RIGHT_BACK] = (float) rightBack.getPower();
+        record.power[FlightRecord.SHOOTER1] = (float) shooter1.getPower();
+        record.power[FlightRecord.SHOOTER2] = 0;
+        record.red = 0;
+        record.green = 0;
+        record.blue = 0;
+        record.voltage = (float) voltageMonitor.getVoltage();
+        record.restingVoltage = voltageMonitor.getRestingVoltage();
+        record.leftStickY = (float) input.leftStickY;
+        record.rightStickY = (float) input.rightStickY;
+        record.step = -1;
+        record.shooterPosition = flywheel.getPosition();
+
+        int flags = 0;
+        if (input.slidesDown) {
+            flags |= FlightRecord.BUTTON_SLIDES_DOWN;
+        }
+        if (input.slidesUp) {
+            flags |= FlightRecord.BUTTON_SLIDES_UP;
+        }
+        if (input.capBall) {
+            flags |= FlightRecord.BUTTON_CAP_BALL;
+        }
+        if (input.capBallRelease) {
+            flags |= FlightRecord.BUTTON_CAP_BALL_RELEASE;
+        }
+        if (input.shoot) {
+            flags |= FlightRecord.BUTTON_SHOOT;
+        }
+        if (input.slowDrive) {
+            flags |= FlightRecord.BUTTON_SLOW_DRIVE;
+        }
+        record.flags = flags;
+    }
+
+    public Odometry getOdometry() {
+        return odometry;
+    }
+
+    public FlywheelController getFlywheel() {
+        return flywheel;
+    }
+
+    public VoltageMonitor getVoltageMonitor() {
+        return voltageMonitor;
+    }
+
+    /** Sum of |power| over the motors, from the last powers we sent (no bus reads). */
+    public double getMotorLoad() {
+        double load = 0;
+        for (CachedMotor motor : motors) {
+            load += Math.abs(motor.getPower());
+        }
+        return load;
+    }
+
+    public int getIssuedWrites() {
+        int total = 0;
+        for (CachedMotor motor : motors) {
+            total += motor.getIssuedWrites();
+        }
+        for (CachedServo servo : servos) {
+            total += servo.getIssuedWrites();
+        }
+        return total;
+    }
+
+    public int getSuppressedWrites() {
+        int total = 0;
+        for (CachedMotor motor : motors) {
+            total += motor.getSuppressedWrites();
+        }
+        for (CachedServo servo : servos) {
+            total += servo.getSuppressedWrites();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,196 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * The CraigLauncher robot's hardware, independent of where it comes from.
+ *
+ * The auton opmodes fill this in from the real hardwareMap (through {@link SdkDeviceMap}) and the
+ * simulator fills it in from a {@link SimHardwareMap}. Commands and routines only ever talk to
+ * this class, which is what lets them run off the robot.
+ */
+public class CraigLauncherHardware {
+
+    /* -------------- CONSTANTS ---------------- */
+
+    // encoder and wheel geometry is in DriveKinematics
+    public static final double     DRIVE_SPEED             = 0.6;
+    public static final double     TURN_SPEED              = 0.4;
+
+    // limits for profiled moves, in inches per second (per second). Top speed and what the
+    // wheels grip at; ProfiledDriveCommand.plan() picks the speed the feedforward leaves room for
+    public static final double     PROFILE_DRIVE_VELOCITY  = 28.0;
+    public static final double     PROFILE_DRIVE_ACCEL     = 150.0;
+    public static final double     PROFILE_TURN_VELOCITY   = 28.0;
+    public static final double     PROFILE_TURN_ACCEL      = 150.0;
+
+    // we assume that the LED pin of the RGB sensor is connected to
+    // digital port 5 (zero indexed).
+    public static final int LED_CHANNEL = 5;
+
+    /* ----------------------------------------- */
+
+
+    /* ---------- HARDWARE MAP ------------ */
+    // wrapped so repeated power/mode/target writes don't go out on the bus
+    public CachedMotor leftFront;
+    public CachedMotor leftBack;
+    public CachedMotor rightFront;
+    public CachedMotor rightBack;
+
+    public CachedMotor shooter1;
+    public CachedMotor shooter2;
+
+    // holds the shooter speed, see initShooter(); null on robots set up without it
+    public FlywheelController flywheel;
+
+    public ColorDevice sensorRGB;
+    public DigitalOutputDevice cdim;
+
+    public VoltageDevice voltageSensor;
+
+    // filtered battery voltage, sampled off the control loop; see VoltageMonitor
+    public VoltageMonitor voltageMonitor;
+
+    /* ------------------------------------- */
+
+    public final Clock clock;
+
+    // Everything read from the hardware this cycle, see HardwareSnapshot
+    public final HardwareSnapshot snapshot;
+
+    // how long each move took to come to rest, see SettleCommand
+    public final SettleLog settleLog = new SettleLog();
+
+    // decides beacon colors; replaced by the calibrated one if there is a calibration file
+    public BeaconClassifier beaconClassifier = new BeaconClassifier();
+
+    // latest camera read of a beacon, filled in by BeaconVision when the camera is running
+    public final BeaconReading beaconReading = new BeaconReading();
+
+    // where the wheels say we are, updated every cycle from the snapshot
+    public final Odometry odometry = new Odometry();
+
+    // Vuforia poses (from a VisionWorker, if one is running) and where we think we are
+    public final PoseHandoff visionPoses = new PoseHandoff();
+    public final PoseEstimator poseEstimator = new PoseEstimator();
+
+    public CraigLauncherHardware(Clock clock) {
+        this.clock = clock;
+        this.snapshot = new HardwareSnapshot(clock);
+    }
+
+    /** Looks up the drive motors and the voltage sensor and sets the motor directions. */
+    public void initDrive(DeviceMap devices) {
+        leftFront = new CachedMotor(devices.motor("leftFront"));
+        leftBack = new CachedMotor(devices.motor("leftBack"));
+        rightFront = new CachedMotor(devices.motor("rightFront"));
+        rightBack = new CachedMotor(devices.motor("rightBack"));
+
+        // look the voltage sensor up once instead of on every move, and only ever read it
+        // through the monitor so the control loop doesn't wait on it
+        voltageSensor = devices.voltageSensor("right");
+        voltageMonitor = new VoltageMonitor(voltageSensor, clock);
+
+        // the shooter motors are only looked up by routines that shoot, see initShooter()
+
+        leftFront.setReversed(false); // Set to true if using AndyMark motors
+        leftBack.setReversed(false);
+        rightFront.setReversed(true);// Set to false if using AndyMark motors
+        rightBack.setReversed(true);
+
+        snapshot.setDriveMotors(leftFront.getMotor(), rightFront.getMotor(),
+                leftBack.getMotor(), rightBack.getMotor());
+        snapshot.setVoltageSensor(voltageMonitor);
+    }
+
+    public void resetEncoders() {
+        leftFront.setMode(MotorDevice.Mode.STOP_AND_RESET_ENCODER);
+        rightFront.setMode(MotorDevice.Mode.STOP_AND_RESET_ENCODER);
+        leftBack.setMode(MotorDevice.Mode.STOP_AND_RESET_ENCODER);
+        rightBack.setMode(MotorDevice.Mode.STOP_AND_RESET_ENCODER);
+        odometry.resetEncoders();
+    }
+
+    /**
+     * Where the robot was set down for auton, in field coordinates (see {@link RobotPose}).
+     * Odometry and the pose estimate both start from here instead of from nowhere.
+     */
+    public void setStartPose(double x, double y, double heading) {
+        odometry.setPose(x, y, heading);
+        poseEstimator.setPose(x, y, heading, PoseEstimator.START_SIGMA_INCHES, PoseEstimator.START_SIGMA_RADIANS);
+    }
+
+    /** Once per control cycle: read the hardware into the snapshot and update odometry and the pose estimate. */
+    public void update() {
+        if (voltageMonitor != null) {
+            voltageMonitor.setLoad(getMotorLoad());
+        }
+        if (flywheel != null) {
+            snapshot.setReadShooter(flywheel.getTargetRpm() != 0);
+        }
+        snapshot.update();
+        odometry.update(snapshot);
+        poseEstimator.update(odometry, snapshot.getTimestampNanos(), visionPoses);
+        if (flywheel != null) {
+            flywheel.update(snapshot.getShooterPosition(), snapshot.getTimestampNanos());
+        }
+    }
+
+    /** Sum of |power| over the motors we run, from the last powers we sent (no bus reads). */
+    public double getMotorLoad() {
+        return load(leftFront) + load(rightFront) + load(leftBack) + load(rightBack) + load(shooter1) + load(shooter2);
+    }
+
+    private static double load(CachedMotor motor) {
+        return motor == null ? 0 : Math.abs(motor.getPower());
+    }
+
+    /**
+     * Battery voltage with the motors' sag taken out, so it doesn't depend on what we were just
+     * doing. Falls back to the last snapshot reading without a monitor.
+     */
+    public double getRestingVoltage() {
+        return voltageMonitor != null ? voltageMonitor.getRestingVoltage() : snapshot.getVoltage();
+    }
+
+    public void runUsingEncoders() {
+        leftFront.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        rightFront.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        leftBack.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        rightBack.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+    }
+
+    public void initColor(DeviceMap devices) {
+        cdim = devices.deviceInterfaceModule("dim");
+
+        cdim.setOutputMode(LED_CHANNEL);
+
+        // get a reference to our ColorSensor object.
+        sensorRGB = devices.colorSensor("sensor_color");
+        snapshot.setColorSensor(sensorRGB);
+
+        // turn the LED on in the beginning, just so user will know that the sensor is active.
+        cdim.setState(LED_CHANNEL, false);
+    }
+
+    /*
+     *  Looks up the shooter motors and puts them under a FlywheelController. Can run alongside
+     *  initDrive(), so the battery voltage is only looked up once the controller needs it.
+     */
+    public void initShooter(DeviceMap devices) {
+        shooter1 = new CachedMotor(devices.motor("shooter1"));
+        shooter2 = new CachedMotor(devices.motor("shooter2"));
+
+        VoltageDevice battery = new VoltageDevice() {
+            @Override
+            public double getVoltage() {
+                return voltageMonitor != null ? voltageMonitor.getVoltage() : 0;
+            }
+        };
+        flywheel = new FlywheelController(new MotorDevice[] { shooter1, shooter2 }, battery);
+        snapshot.setShooterMotor(shooter1.getMotor());
+    }
+
+    public void setColorCalibration(ColorCalibration calibration) {
+        beaconClassifier = calibration.toClassifier();
+    }
+}
@@ -33,9 +33,10 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
-import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.IOException;
 
 /**
  * This file contains an minimal example of a Linear "OpMode". An OpMode is a 'program' that runs in either
@@ -55,139 +56,100 @@ public class CraigLauncherTeleop extends LinearOpMode {
 
     /* Declare OpMode members. */
     private ElapsedTime runtime = new ElapsedTime();
-    private boolean slowDrive = false;
-    private boolean slowDriveDebounce = false;
-    private double slowSpeed = 0.5;
+    private CraigLauncherControls.Input input = new CraigLauncherControls.Input();
 
     @Override
     public void runOpMode() {
-        telemetry.addData("Status", "Initialized");
-        telemetry.update();
+        // only sends to the Driver Station a few times a second, and only what changed
+        TelemetryPublisher dashboard = new TelemetryPublisher(telemetry);
+        dashboard.put("Status", "Initialized");
+        dashboard.flush();
 
-        /* eg: Initialize the hardware variables. Note that the strings used here as parameters
-         * to 'get' must correspond to the names assigned during the robot configuration
-         * step (using the FTC Robot Controller app on the phone).
+        /* eg: Initialize the hardware variables. See CraigLauncherControls for the
+         * device names and the joystick map.
          */
-        DcMotor leftFront = hardwareMap.dcMotor.get("leftFront");
-        DcMotor leftBack = hardwareMap.dcMotor.get("leftBack");
-        DcMotor rightFront = hardwareMap.dcMotor.get("rightFront");
-        DcMotor rightBack = hardwareMap.dcMotor.get("rightBack");
-
-        DcMotor slides1 = hardwareMap.dcMotor.get("slides1");
-        DcMotor slides2 = hardwareMap.dcMotor.get("slides2");
-
-        Servo capBallRight = hardwareMap.servo.get("capBallRight");
-        Servo capBallLeft = hardwareMap.servo.get("capBallLeft");
-
-        DcMotor shooter1 = hardwareMap.dcMotor.get("shooter1");
-
-        Servo rotate = hardwareMap.servo.get("rotate");
-
-        /*
-        Servo hopper = hardwareMap.servo.get("hopper");
-        */
-
-
-        // eg: Set the drive motor directions:
-        // "Reverse" the motor that runs backwards when connected directly to the battery
-        leftFront.setDirection(DcMotor.Direction.FORWARD); // Set to REVERSE if using AndyMark motors
-        leftBack.setDirection(DcMotor.Direction.FORWARD);
-        rightFront.setDirection(DcMotor.Direction.REVERSE);// Set to FORWARD if using AndyMark motors
-        rightBack.setDirection(DcMotor.Direction.REVERSE);
-
-        rotate.setPosition(0.1);
-        capBallLeft.setPosition(1);
-        capBallRight.setPosition(0);
-
-        // Wait for the game to start (driver presses PLAY)
-        waitForStart();
-        runtime.reset();
-
-        // run until the end of the match (driver presses STOP)
-        while (opModeIsActive() && runtime.seconds() < 120.0) {
-            telemetry.addData("Status", "Run Time: " + runtime.toString());
-            telemetry.update();
-
-            /*
-            Joystick Map
-            DRIVER
-            Joysticks - drivetrain
-            Linear slides down (hold)- left trigger
-            Linear slides up (hold) - right trigger
-            Cap ball servos (hold) - left bumper
-            Cap ball mechanism release - B
-            Shooter (hold) - A
-            Slow drive - X
-            OPERATOR
-            same except no driving capability
-             */
-
-            // eg: Run wheels in tank mode (note: The joystick goes negative when pushed forwards)
-            if (slowDrive) {
-                leftFront.setPower(-gamepad1.left_stick_y * slowSpeed);
-                leftBack.setPower(-gamepad1.left_stick_y * slowSpeed);
-                rightFront.setPower(-gamepad1.right_stick_y * slowSpeed);
-                rightBack.setPower(-gamepad1.right_stick_y * slowSpeed);
-            } else {
-                leftFront.setPower(-gamepad1.left_stick_y);
-                leftBack.setPower(-gamepad1.left_stick_y);
-                rightFront.setPower(-gamepad1.right_stick_y);
-                rightBack.setPower(-gamepad1.right_stick_y);
-            }
-
-
-            // linear slides down
-            if (gamepad1.left_trigger > 0.1 || gamepad2.left_trigger > 0.1) {
-                slides1.setPower(-1);
-                slides2.setPower(1);
-            } else if (gamepad1.right_trigger > 0.1 || gamepad2.right_trigger > 0.1) {
-                slides1.setPower(1);
-                slides2.setPower(-1);
-            } else {
-                slides1.setPower(0);
-                slides2.setPower(0);
-            }
-
-            // cap ball servo
-            if (gamepad1.left_bumper || gamepad2.left_bumper) {
-                capBallLeft.setPosition(0);
-                capBallRight.setPosition(1);
-            } else {
-                capBallLeft.setPosition(1);
-                capBallRight.setPosition(0);
-            }
-
-            /*
-            // hopper servo
-            if (gamepad1.left_bumper || gamepad2.left_bumper) {
-                hopper.setPosition(1);
-            } else {
-                hopper.setPosition(0.5);
-            }
-            */
+        CraigLauncherControls controls = new CraigLauncherControls(new SdkDeviceMap(hardwareMap));
+        controls.init();
+
+        LoopStats loopStats = new LoopStats("teleop");
+        Odometry odometry = controls.getOdometry();
+        FlywheelController flywheel = controls.getFlywheel();
+        VoltageMonitor voltageMonitor = controls.getVoltageMonitor();
+        voltageMonitor.start();
+
+        // every loop's input, encoders and powers, for looking at (or replaying) afterwards
+        FlightRecord record = new FlightRecord();
+        FlightRecorder recorder = null;
+        try {
+            recorder = FlightRecorder.open(getClass().getSimpleName());
+            recorder.start();
+        } catch (IOException e) {
+            RobotLog.e("FlightRecorder: " + e.getMessage());
+        }
 
-            // cap ball rotate
-            if (gamepad1.b || gamepad2.b) {
-                rotate.setPosition(0.7);
+        try {
+            long cycle = 0;
+
+            // Wait for the game to start (driver presses PLAY)
+            waitForStart();
+            runtime.reset();
+            dashboard.put("Status", "Running");
+
+            // run until the end of the match (driver presses STOP)
+            while (opModeIsActive() && runtime.seconds() < 120.0) {
+                loopStats.mark();
+                dashboard.put("Run Time", runtime.seconds(), 1);
+                dashboard.put("Writes sent", controls.getIssuedWrites());
+                dashboard.put("Writes skipped", controls.getSuppressedWrites());
+                dashboard.put("X", odometry.getX(), 1);
+                dashboard.put("Y", odometry.getY(), 1);
+                dashboard.put("Heading", Math.toDegrees(odometry.getHeading()), 0);
+                dashboard.put("Shooter RPM", flywheel.getRpm(), 0);
+                dashboard.put("Shooter", flywheel.isAtSpeed() ? "READY" : flywheel.getTargetRpm() > 0 ? "spinning up" : "off");
+                dashboard.put("Shot recovery ms", flywheel.getLastRecoveryMillis(), 0);
+                loopStats.report(dashboard);
+                dashboard.update();
+
+                controls.readSensors();
+                readGamepads();
+                controls.apply(input);
+
+                if (recorder != null) {
+                    controls.capture(record, input);
+                    record.cycle = ++cycle;
+                    recorder.append(record);
+                }
             }
 
-            // shooter
-            if (gamepad1.a || gamepad2.a) {
-                shooter1.setPower(1);
-            } else {
-                shooter1.setPower(0);
+            if (flywheel.getShots() > 0) {
+                RobotLog.i("flywheel: %d shots, recovery %.0f ms mean, %.0f ms max", flywheel.getShots(),
+                        flywheel.getMeanRecoveryMillis(), flywheel.getMaxRecoveryMillis());
             }
-
-            // slow drive
-            if (gamepad1.x || gamepad2.x) {
-                slowDriveDebounce = true;
-            } else {
-                if (slowDriveDebounce) {
-                    slowDrive = !slowDrive;
-                    slowDriveDebounce = false;
+            LoopStats.save(getClass().getSimpleName(), loopStats);
+        } finally {
+            voltageMonitor.stop();
+            if (recorder != null) {
+                try {
+                    recorder.stop();
+                    RobotLog.i("FlightRecorder: %d records, %d dropped", recorder.getWritten(), recorder.getDropped());
+                } catch (IOException e) {
+                    RobotLog.e("FlightRecorder: " + e.getMessage());
                 }
             }
-
         }
     }
-}
\ No newline at end of file
+
+    /*
+     * Driving is gamepad1 only, everything else works from either gamepad.
+     */
+    private void readGamepads() {
+        input.leftStickY = gamepad1.left_stick_y;
+        input.rightStickY = gamepad1.right_stick_y;
+        input.slidesDown = gamepad1.left_trigger > 0.1 || gamepad2.left_trigger > 0.1;
+        input.slidesUp = gamepad1.right_trigger > 0.1 || gamepad2.right_trigger > 0.1;
+        input.capBall = gamepad1.left_bumper || gamepad2.left_bumper;
+        input.capBallRelease = gamepad1.b || gamepad2.b;
+        input.shoot = gamepad1.a || gamepad2.a;
+        input.slowDrive = gamepad1.x || gamepad2.x;
+    }
+}
@@ -0,0 +1,21 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Looks devices up by the names given in the robot configuration on the phone
+ * ("leftFront", "sensor_color", "dim", ...), like hardwareMap does.
+ *
+ * {@link SdkDeviceMap} wraps the real hardwareMap, {@link SimHardwareMap} hands out simulated
+ * devices under the same names.
+ */
+public interface DeviceMap {
+
+    MotorDevice motor(String name);
+
+    ServoDevice servo(String name);
+
+    ColorDevice colorSensor(String name);
+
+    VoltageDevice voltageSensor(String name);
+
+    DigitalOutputDevice deviceInterfaceModule(String name);
+}
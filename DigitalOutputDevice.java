@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Digital outputs of a device interface module (we only use one, for the color sensor LED).
+ */
+public interface DigitalOutputDevice {
+
+    void setOutputMode(int channel);
+
+    void setState(int channel, boolean state);
+}
@@ -0,0 +1,110 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Non-blocking version of the old encoderDrive() move: a relative move based on encoder counts.
+ * Encoders are not reset as the move is based on the current position.
+ * Move will finish if any of these conditions occur:
+ *  1) Move gets to the desired position
+ *  2) Move runs out of time
+ *  3) Driver stops the opmode running (the scheduler interrupts us)
+ */
+public class DriveCommand implements DriveMove {
+
+    private final CraigLauncherHardware robot;
+    private final double speed;
+    private final double leftInches;
+    private final double rightInches;
+    private final double timeoutS;
+
+    private long startNanos;
+    private int leftFrontTarget;
+    private int rightFrontTarget;
+    private int leftBackTarget;
+    private int rightBackTarget;
+
+    // snapshot cycle in which we started the move; busy flags from that read are stale
+    private long startCycle;
+
+    public DriveCommand(CraigLauncherHardware robot, double speed,
+                        double leftInches, double rightInches, double timeoutS) {
+        this.robot = robot;
+        this.speed = speed;
+        this.leftInches = leftInches;
+        this.rightInches = rightInches;
+        this.timeoutS = timeoutS;
+    }
+
+    @Override
+    public void start() {
+        HardwareSnapshot snapshot = robot.snapshot;
+        // resting voltage, so the correction doesn't depend on how hard the last leg was driving
+        double swerve = DriveKinematics.swerve(robot.getRestingVoltage());
+
+        startCycle = snapshot.getCycle();
+
+        // Determine new target position, and pass to motor controller
+        leftFrontTarget = snapshot.getPosition(HardwareSnapshot.LEFT_FRONT) + DriveKinematics.inchesToCounts(leftInches);
+        rightFrontTarget = snapshot.getPosition(HardwareSnapshot.RIGHT_FRONT) + DriveKinematics.inchesToCounts(rightInches * swerve);
+        leftBackTarget = snapshot.getPosition(HardwareSnapshot.LEFT_BACK) + DriveKinematics.inchesToCounts(leftInches);
+        rightBackTarget = snapshot.getPosition(HardwareSnapshot.RIGHT_BACK) + DriveKinematics.inchesToCounts(rightInches * swerve);
+        robot.leftFront.setTargetPosition(leftFrontTarget);
+        robot.rightFront.setTargetPosition(rightFrontTarget);
+        robot.leftBack.setTargetPosition(leftBackTarget);
+        robot.rightBack.setTargetPosition(rightBackTarget);
+
+        // Turn On RUN_TO_POSITION
+        robot.leftFront.setMode(MotorDevice.Mode.RUN_TO_POSITION);
+        robot.rightFront.setMode(MotorDevice.Mode.RUN_TO_POSITION);
+        robot.leftBack.setMode(MotorDevice.Mode.RUN_TO_POSITION);
+        robot.rightBack.setMode(MotorDevice.Mode.RUN_TO_POSITION);
+
+        // reset the timeout time and start motion.
+        startNanos = robot.clock.nanoTime();
+        robot.leftFront.setPower(Math.abs(speed));
+        robot.rightFront.setPower(Math.abs(speed) * swerve);
+        robot.leftBack.setPower(Math.abs(speed));
+        robot.rightBack.setPower(Math.abs(speed) * swerve);
+    }
+
+    @Override
+    public void execute() {
+        // RUN_TO_POSITION does the work on the motor controller, nothing to do per tick
+    }
+
+    @Override
+    public boolean isFinished() {
+        if ((robot.clock.nanoTime() - startNanos) / 1e9 >= timeoutS) {
+            return true;
+        }
+
+        // wait for a snapshot taken after the targets were set before trusting the busy flags
+        HardwareSnapshot snapshot = robot.snapshot;
+        return snapshot.getCycle() > startCycle && !snapshot.isDriveBusy();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        // Stop all motion;
+        robot.leftFront.setPower(0);
+        robot.rightFront.setPower(0);
+        robot.leftBack.setPower(0);
+        robot.rightBack.setPower(0);
+
+        // Turn off RUN_TO_POSITION
+        robot.leftFront.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        robot.rightFront.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        robot.leftBack.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        robot.rightBack.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+    }
+
+    @Override
+    public double getErrorInches() {
+        HardwareSnapshot snapshot = robot.snapshot;
+        int error = Math.max(
+                Math.max(Math.abs(leftFrontTarget - snapshot.getPosition(HardwareSnapshot.LEFT_FRONT)),
+                        Math.abs(rightFrontTarget - snapshot.getPosition(HardwareSnapshot.RIGHT_FRONT))),
+                Math.max(Math.abs(leftBackTarget - snapshot.getPosition(HardwareSnapshot.LEFT_BACK)),
+                        Math.abs(rightBackTarget - snapshot.getPosition(HardwareSnapshot.RIGHT_BACK))));
+        return DriveKinematics.countsToInches(error);
+    }
+}
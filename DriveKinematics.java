@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Drivetrain geometry and the encoder math that goes with it.
+ */
+public class DriveKinematics {
+
+    public static final double     COUNTS_PER_MOTOR_REV    = 1120 ;    // AndyMark 40s
+    public static final double     DRIVE_GEAR_REDUCTION    = 1.0 ;     // This is < 1.0 if geared UP
+    public static final double     WHEEL_DIAMETER_INCHES   = 4.0 ;     // For figuring circumference
+    public static final double     COUNTS_PER_INCH         = (COUNTS_PER_MOTOR_REV * DRIVE_GEAR_REDUCTION) /
+                                                        (WHEEL_DIAMETER_INCHES * 3.1415);
+
+    // center of the left wheels to center of the right wheels
+    public static final double     TRACK_WIDTH_INCHES      = 15.0;
+
+    // wheel speed at power 1 in RUN_USING_ENCODER, for feedforward
+    public static final double     MAX_INCHES_PER_SECOND   = 28.0;
+
+    /** Encoder counts for a distance, truncated the way encoderDrive always has. */
+    public static int inchesToCounts(double inches) {
+        return (int)(inches * COUNTS_PER_INCH);
+    }
+
+    public static double countsToInches(double counts) {
+        return counts / COUNTS_PER_INCH;
+    }
+
+    /*
+     *  Extra power/distance for the right side at a given battery voltage. The right side
+     *  drifts more as the voltage climbs, so this scales it up 1% per volt above 10 V.
+     */
+    public static double swerve(double voltage) {
+        return (voltage - 10) * .01 + 1;
+    }
+
+    /** Heading change (radians, counter-clockwise positive) for the given wheel travel in inches. */
+    public static double headingChange(double leftInches, double rightInches) {
+        return (rightInches - leftInches) / TRACK_WIDTH_INCHES;
+    }
+}
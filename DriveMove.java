@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * A drive command that moves the wheels to a target, so something else can tell how close
+ * they got (see {@link SettleCommand}).
+ */
+public interface DriveMove extends Command {
+
+    /** How far the wheels (the worse side) still are from the end of the move, from the latest snapshot. */
+    double getErrorInches();
+}
@@ -0,0 +1,79 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackable;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackableDefaultListener;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackables;
+
+/**
+ * The four Velocity Vortex beacon targets and where they are on the field.
+ *
+ * Field coordinates are the FTC ones (origin in the middle of the field, see
+ * ftc_app/doc/tutorial/FTC_FieldCoordinateSystemDefinition.pdf), in mm since that's what the
+ * target sizes in the dataset XML are in. Wheels and Lego are on the blue wall (+y), Tools and
+ * Gears on the red wall (-x), each above its beacon.
+ */
+public class FieldTargets {
+
+    public static final String ASSET = "FTC_2016-17";
+
+    // in dataset order
+    public static final int WHEELS = 0;
+    public static final int TOOLS = 1;
+    public static final int LEGO = 2;
+    public static final int GEARS = 3;
+    public static final String[] NAMES = { "Wheels", "Tools", "Lego", "Gears" };
+
+    public static final float MM_PER_INCH = 25.4f;
+
+    // the FTC field is ~11'10" center-to-center of the glass panels
+    public static final float FIELD_WIDTH_MM = (12 * 12 - 2) * MM_PER_INCH;
+
+    // centers of the targets along their wall, inches from the middle of the field
+    private static final float[] ALONG_WALL_INCHES = { 12, 36, -36, -12 };
+
+    /**
+     * Loads the targets, names them, tells each where it is on the field and where the phone is
+     * on the robot. Activate the result once tracking should start.
+     */
+    public static VuforiaTrackables load(VuforiaLocalizer vuforia, OpenGLMatrix phoneLocationOnRobot,
+                                         VuforiaLocalizer.CameraDirection cameraDirection) {
+        VuforiaTrackables targets = vuforia.loadTrackablesFromAsset(ASSET);
+        for (int i = 0; i < NAMES.length; i++) {
+            VuforiaTrackable target = targets.get(i);
+            target.setName(NAMES[i]);
+            target.setLocation(location(i));
+            ((VuforiaTrackableDefaultListener) target.getListener())
+                    .setPhoneInformation(phoneLocationOnRobot, cameraDirection);
+        }
+        return targets;
+    }
+
+    /*
+     * Each target starts lying at the origin facing up. We stand it up (90 around X) and then
+     * slide it out to its wall; the red wall targets also get turned 90 around Z to face across
+     * the field.
+     */
+    public static OpenGLMatrix location(int target) {
+        float along = ALONG_WALL_INCHES[target] * MM_PER_INCH;
+        if (target == WHEELS || target == LEGO) {
+            // blue wall, facing into the field (-y)
+            return OpenGLMatrix
+                    .translation(along, FIELD_WIDTH_MM / 2, 0)
+                    .multiplied(Orientation.getRotationMatrix(
+                            AxesReference.EXTRINSIC, AxesOrder.XZX,
+                            AngleUnit.DEGREES, 90, 0, 0));
+        }
+        // red wall, facing into the field (+x)
+        return OpenGLMatrix
+                .translation(-FIELD_WIDTH_MM / 2, along, 0)
+                .multiplied(Orientation.getRotationMatrix(
+                        AxesReference.EXTRINSIC, AxesOrder.XZX,
+                        AngleUnit.DEGREES, 90, 90, 0));
+    }
+}
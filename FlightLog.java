@@ -0,0 +1,73 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A log written by {@link FlightRecorder}, opened for reading. The file is mapped, so records
+ * are decoded straight out of it into a {@link FlightRecord} the caller reuses.
+ */
+public class FlightLog {
+
+    private final File path;
+    private final MappedByteBuffer mapped;
+    private final int size;
+    private final long dropped;
+
+    private FlightLog(File path, MappedByteBuffer mapped, int size, long dropped) {
+        this.path = path;
+        this.mapped = mapped;
+        this.size = size;
+        this.dropped = dropped;
+    }
+
+    public static FlightLog open(File path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() < FlightRecorder.HEADER_BYTES) {
+                throw new IOException(path + ": too short for a flight log");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt(0) != FlightRecorder.MAGIC) {
+                throw new IOException(path + ": not a flight log");
+            }
+            if (mapped.getInt(4) != FlightRecorder.VERSION || mapped.getInt(8) != FlightRecord.BYTES) {
+                throw new IOException(path + ": flight log version " + mapped.getInt(4) + " not supported");
+            }
+            int size = mapped.getInt(12);
+            if (FlightRecorder.HEADER_BYTES + (long) size * FlightRecord.BYTES > channel.size()) {
+                throw new IOException(path + ": truncated");
+            }
+            return new FlightLog(path, mapped, size, mapped.getLong(16));
+        } finally {
+            // the mapping stays valid after the file is closed
+            file.close();
+        }
+    }
+
+    public File getPath() {
+        return path;
+    }
+
+    /** Number of records. */
+    public int size() {
+        return size;
+    }
+
+    /** Records the recorder had to drop while writing this log. */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /** Decodes record i into the given record. */
+    public void read(int i, FlightRecord record) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("record " + i + " of " + size);
+        }
+        record.read(mapped, FlightRecorder.HEADER_BYTES + i * FlightRecord.BYTES);
+    }
+}
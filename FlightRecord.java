@@ -0,0 +1,155 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One control cycle's worth of what the robot saw and did, as written by {@link FlightRecorder}.
+ *
+ * Filled in by the loop (see {@link #capture(CraigLauncherHardware, int)} for the autons and
+ * {@link CraigLauncherControls#capture(FlightRecord, CraigLauncherControls.Input)} for the teleop),
+ * then copied into the recorder's buffer. Reused every cycle, so everything is primitive.
+ *
+ * On disk each record is {@value #BYTES} bytes, big endian:
+ * <pre>
+ *   0  long   timestampNanos
+ *   8  long   cycle
+ *  16  int[4] encoder positions (LEFT_FRONT, RIGHT_FRONT, LEFT_BACK, RIGHT_BACK)
+ *  32  float[6] commanded powers (the same four drive motors, shooter1, shooter2)
+ *  56  int[3] red, green, blue (the last reading; fresh this cycle if COLOR_READ)
+ *  68  float  battery voltage under this cycle's load, as the loop read it
+ *  72  float  leftStickY
+ *  76  float  rightStickY
+ *  80  int    routine step (index into the routine's top level, -1 for teleop)
+ *  84  int    flags: drive busy bits 0-3, COLOR_READ, teleop buttons from bit 8 (see BUTTON_*)
+ *  88  int    shooter encoder position (last reading the flywheel controller was given)
+ *  92  int    reserved, 0
+ *  96  double resting voltage the cycle worked from (see VoltageMonitor), what a replay feeds back
+ * </pre>
+ */
+public class FlightRecord {
+
+    public static final int BYTES = 104;
+
+    public static final int MOTORS = 4;
+    public static final int POWERS = 6;
+    public static final int SHOOTER1 = 4;
+    public static final int SHOOTER2 = 5;
+
+    // the color sensor was read this cycle
+    public static final int COLOR_READ = 1 << 4;
+
+    public static final int BUTTON_SLIDES_DOWN = 1 << 8;
+    public static final int BUTTON_SLIDES_UP = 1 << 9;
+    public static final int BUTTON_CAP_BALL = 1 << 10;
+    public static final int BUTTON_CAP_BALL_RELEASE = 1 << 11;
+    public static final int BUTTON_SHOOT = 1 << 12;
+    public static final int BUTTON_SLOW_DRIVE = 1 << 13;
+
+    public long timestampNanos;
+    public long cycle;
+    public final int[] position = new int[MOTORS];
+    public final float[] power = new float[POWERS];
+    public int red;
+    public int green;
+    public int blue;
+    public float voltage;
+    public double restingVoltage;
+    public float leftStickY;
+    public float rightStickY;
+    public int step;
+    public int flags;
+    public int shooterPosition;
+
+    /** Fills this in from the robot's snapshot and the powers last sent to its motors. */
+    public void capture(CraigLauncherHardware robot, int step) {
+        HardwareSnapshot snapshot = robot.snapshot;
+        timestampNanos = snapshot.getTimestampNanos();
+        cycle = snapshot.getCycle();
+        flags = 0;
+        for (int i = 0; i < MOTORS; i++) {
+            position[i] = snapshot.getPosition(i);
+            if (snapshot.isBusy(i)) {
+                flags |= 1 << i;
+            }
+        }
+        power[HardwareSnapshot.LEFT_FRONT] = power(robot.leftFront);
+        power[HardwareSnapshot.RIGHT_FRONT] = power(robot.rightFront);
+        power[HardwareSnapshot.LEFT_BACK] = power(robot.leftBack);
+        power[HardwareSnapshot.RIGHT_BACK] = power(robot.rightBack);
+        power[SHOOTER1] = power(robot.shooter1);
+        power[SHOOTER2] = power(robot.shooter2);
+        shooterPosition = robot.flywheel != null ? robot.flywheel.getPosition() : 0;
+        if (snapshot.isColorFresh()) {
+            flags |= COLOR_READ;
+        }
+        red = snapshot.getRed();
+        green = snapshot.getGreen();
+        blue = snapshot.getBlue();
+        voltage = (float) snapshot.getVoltage();
+        restingVoltage = robot.getRestingVoltage();
+        leftStickY = 0;
+        rightStickY = 0;
+        this.step = step;
+    }
+
+    public boolean isBusy(int motor) {
+        return (flags & (1 << motor)) != 0;
+    }
+
+    public boolean isColorRead() {
+        return (flags & COLOR_READ) != 0;
+    }
+
+    public boolean isPressed(int button) {
+        return (flags & button) != 0;
+    }
+
+    /** Writes the record at the given byte offset, without touching the buffer's position. */
+    public void write(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, timestampNanos);
+        buffer.putLong(offset + 8, cycle);
+        for (int i = 0; i < MOTORS; i++) {
+            buffer.putInt(offset + 16 + 4 * i, position[i]);
+        }
+        for (int i = 0; i < POWERS; i++) {
+            buffer.putFloat(offset + 32 + 4 * i, power[i]);
+        }
+        buffer.putInt(offset + 56, red);
+        buffer.putInt(offset + 60, green);
+        buffer.putInt(offset + 64, blue);
+        buffer.putFloat(offset + 68, voltage);
+        buffer.putFloat(offset + 72, leftStickY);
+        buffer.putFloat(offset + 76, rightStickY);
+        buffer.putInt(offset + 80, step);
+        buffer.putInt(offset + 84, flags);
+        buffer.putInt(offset + 88, shooterPosition);
+        buffer.putInt(offset + 92, 0);
+        buffer.putDouble(offset + 96, restingVoltage);
+    }
+
+    /** Reads the record at the given byte offset, without touching the buffer's position. */
+    public void read(ByteBuffer buffer, int offset) {
+        timestampNanos = buffer.getLong(offset);
+        cycle = buffer.getLong(offset + 8);
+        for (int i = 0; i < MOTORS; i++) {
+            position[i] = buffer.getInt(offset + 16 + 4 * i);
+        }
+        for (int i = 0; i < POWERS; i++) {
+            power[i] = buffer.getFloat(offset + 32 + 4 * i);
+        }
+        red = buffer.getInt(offset + 56);
+        green = buffer.getInt(offset + 60);
+        blue = buffer.getInt(offset + 64);
+        voltage = buffer.getFloat(offset + 68);
+        leftStickY = buffer.getFloat(offset + 72);
+        rightStickY = buffer.getFloat(offset + 76);
+        step = buffer.getInt(offset + 80);
+        flags = buffer.getInt(offset + 84);
+        shooterPosition = buffer.getInt(offset + 88);
+        restingVoltage = buffer.getDouble(offset + 96);
+    }
+
+    private static float power(CachedMotor motor) {
+        return motor == null ? 0 : (float) motor.getPower();
+    }
+}
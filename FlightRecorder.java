@@ -0,0 +1,180 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Black box for the control loop: every cycle's {@link FlightRecord} goes into a fixed ring of
+ * direct (off-heap) memory, and a background thread copies it out to a memory-mapped log file.
+ *
+ * {@link #append(FlightRecord)} is all the loop ever calls. It writes {@value FlightRecord#BYTES}
+ * bytes into the ring and bumps a counter; it never allocates, never touches the file and never
+ * waits. If the flusher falls a whole ring behind, the record is dropped (and counted) rather
+ * than holding up the loop. One thread appends, the flusher thread drains.
+ *
+ * The file is preallocated to hold maxRecords and mapped once; see {@link FlightLog} for reading
+ * it back. Layout (big endian): a {@value #HEADER_BYTES} byte header
+ * <pre>
+ *   0  int  MAGIC
+ *   4  int  VERSION
+ *   8  int  record size in bytes
+ *  12  int  records written (kept up to date by every flush)
+ *  16  long records dropped
+ *  24  long reserved, 0
+ * </pre>
+ * followed by the records back to back.
+ */
+public class FlightRecorder implements Runnable {
+
+    public static final int MAGIC = 0x46524543;   // "FREC"
+    public static final int VERSION = 3;
+    public static final int HEADER_BYTES = 32;
+
+    // ~10 s of loop at 100 Hz; the flusher only has to keep up on average
+    public static final int RING_RECORDS = 1024;
+
+    // 6 minutes at 100 Hz, about 3.5 MB; enough for auton and teleop
+    public static final int DEFAULT_MAX_RECORDS = 36000;
+
+    public static final long FLUSH_MILLIS = 100;
+
+    public static final String LOG_DIR = "/sdcard/FIRST/flightlog";
+
+    private final ByteBuffer ring = ByteBuffer.allocateDirect(RING_RECORDS * FlightRecord.BYTES);
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final int maxRecords;
+
+    // head and ringDropped are only written by the loop, the rest only by the flusher
+    private volatile long head;
+    private volatile long ringDropped;
+    private volatile long tail;
+    private volatile long fileDropped;
+    private volatile int written;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public FlightRecorder(File path, int maxRecords) throws IOException {
+        this.maxRecords = maxRecords;
+        file = new RandomAccessFile(path, "rw");
+        file.setLength(0);
+        channel = file.getChannel();
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) maxRecords * FlightRecord.BYTES);
+        mapped.putInt(0, MAGIC);
+        mapped.putInt(4, VERSION);
+        mapped.putInt(8, FlightRecord.BYTES);
+        mapped.putInt(12, 0);
+        mapped.putLong(16, 0);
+        mapped.putLong(24, 0);
+    }
+
+    /** A new log in LOG_DIR named after the opmode and the time, e.g. RGBAutonEncodersBlue-1484412345678.frec */
+    public static FlightRecorder open(String opModeName) throws IOException {
+        File dir = new File(LOG_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("could not create " + LOG_DIR);
+        }
+        return new FlightRecorder(new File(dir, opModeName + "-" + System.currentTimeMillis() + ".frec"),
+                DEFAULT_MAX_RECORDS);
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "FlightRecorder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops the flusher, writes out whatever is left and closes the file. */
+    public void stop() throws IOException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        flush();
+        mapped.force();
+        channel.close();
+        file.close();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            flush();
+            try {
+                Thread.sleep(FLUSH_MILLIS);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /** From the control loop, once per cycle. False if the record had to be dropped. */
+    public boolean append(FlightRecord record) {
+        long h = head;
+        if (h - tail >= RING_RECORDS) {
+            ringDropped++;
+            return false;
+        }
+        record.write(ring, (int) (h % RING_RECORDS) * FlightRecord.BYTES);
+        head = h + 1;
+        return true;
+    }
+
+    /**
+     * Copies everything appended so far from the ring into the file. The flusher thread calls
+     * this; call it directly instead of start()ing the thread to record in step with the sim.
+     */
+    public void flush() {
+        long h = head;
+        long t = tail;
+        long lost = 0;
+        while (t < h) {
+            if (written < maxRecords) {
+                int from = (int) (t % RING_RECORDS) * FlightRecord.BYTES;
+                int to = HEADER_BYTES + written * FlightRecord.BYTES;
+                for (int i = 0; i < FlightRecord.BYTES; i += 8) {
+                    mapped.putLong(to + i, ring.getLong(from + i));
+                }
+                written++;
+            } else {
+                // file is full
+                lost++;
+            }
+            t++;
+            tail = t;
+        }
+        if (lost > 0) {
+            fileDropped += lost;
+        }
+        mapped.putInt(12, written);
+        mapped.putLong(16, getDropped());
+    }
+
+    /** Records in the file so far. */
+    public int getWritten() {
+        return written;
+    }
+
+    /** Records appended but not yet in the file. */
+    public long getPending() {
+        return head - tail;
+    }
+
+    /** Records that never made it to the file, because the ring or the file was full. */
+    public long getDropped() {
+        return ringDropped + fileDropped;
+    }
+}
@@ -0,0 +1,231 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Holds the shooter flywheel at a target speed instead of just running it at a fixed power.
+ *
+ * Every {@link #update(int, long)} takes the flywheel encoder reading the loop made this cycle
+ * (the {@link HardwareSnapshot} in auton, CraigLauncherControls.readSensors() in teleop; the
+ * controller never goes to the hardware itself), works out the speed over the last few readings,
+ * and sets the power to what that speed should take on this battery (feedforward, from the
+ * {@link VoltageDevice}) plus a PID correction on the speed error. The motors run
+ * RUN_WITHOUT_ENCODER so the motor controller's own speed loop doesn't fight ours.
+ *
+ * The wheel is at speed once the error has stayed inside {@link #TOLERANCE_RPM} for a few
+ * readings in a row; shoot only then. A ball going through knocks the speed down, which we count
+ * as a shot, and the time from there until it is back at speed is the recovery time, i.e. how
+ * soon the next ball can go.
+ *
+ * With a target of 0 the motors are just stopped and the reading is ignored, so the loop only
+ * needs to read the encoder while {@link #getTargetRpm()} isn't 0.
+ */
+public class FlywheelController {
+
+    // AndyMark 40s like the drive, speeds are at the motor output shaft
+    public static final double COUNTS_PER_REV = DriveKinematics.COUNTS_PER_MOTOR_REV;
+
+    // loaded speed at power 1 on a NOMINAL_VOLTS battery, for the feedforward
+    public static final double RPM_PER_POWER = 134.0;
+
+    // Shooting speed. The teleop used to shoot at power 1, which measured 128 rpm on a tired
+    // battery and up to 151 on a fresh one, and the shot was aimed for that; this is the low end,
+    // so no shot is slower than before and holding it takes 0.96 power at NOMINAL_VOLTS. A fresh
+    // battery leaves more in hand to pull the speed back up after a ball.
+    public static final double SHOT_RPM = 128.0;
+
+    public static final double KP = 0.02;           // power per rpm off
+    public static final double KI = 0.04;           // power per rpm-second off
+    public static final double KD = 0.0001;         // power per rpm/s, on the measured speed
+    public static final double MAX_INTEGRAL = 0.2;  // most power the integral may add or take away
+
+    public static final double TOLERANCE_RPM = 4.0;
+    public static final int AT_SPEED_SAMPLES = 3;
+
+    // a drop this far below the target while at speed is a ball going through
+    public static final double SHOT_DROP_RPM = 8.0;
+
+    // readings the speed is worked out over; more is smoother but slower to see a change
+    public static final int WINDOW = 4;
+
+    private final MotorDevice[] motors;
+    private final VoltageDevice voltage;
+
+    private double targetRpm;
+
+    // last WINDOW + 1 encoder readings
+    private final int[] positions = new int[WINDOW + 1];
+    private final long[] times = new long[WINDOW + 1];
+    private int readings;
+
+    private double rpm;
+    private double lastRpm;
+    private double integral;
+    private double power;
+    private int samplesInTolerance;
+    private boolean atSpeed;
+
+    private boolean recovering;
+    private long shotNanos;
+    private int shots;
+    private double lastRecoveryMillis;
+    private double maxRecoveryMillis;
+    private double totalRecoveryMillis;
+
+    /**
+     * @param motors  everything that drives the flywheel, all given the same power
+     * @param voltage battery voltage for the feedforward, NOMINAL_VOLTS is assumed if null
+     */
+    public FlywheelController(MotorDevice[] motors, VoltageDevice voltage) {
+        this.motors = motors;
+        this.voltage = voltage;
+        for (MotorDevice motor : motors) {
+            motor.setMode(MotorDevice.Mode.RUN_WITHOUT_ENCODER);
+        }
+    }
+
+    /** Speed to hold, 0 to stop (the motors stop right away). Readiness starts over whenever it changes. */
+    public void setTargetRpm(double targetRpm) {
+        if (targetRpm == this.targetRpm) {
+            return;
+        }
+        this.targetRpm = targetRpm;
+        samplesInTolerance = 0;
+        atSpeed = false;
+        recovering = false;
+        integral = 0;
+        if (targetRpm == 0) {
+            readings = 0;
+            rpm = 0;
+            lastRpm = 0;
+            setPower(0);
+        }
+    }
+
+    public double getTargetRpm() {
+        return targetRpm;
+    }
+
+    /**
+     * Once per control cycle, with this cycle's flywheel encoder reading and the time it was
+     * taken; the motors get the new power.
+     */
+    public void update(int position, long nanos) {
+        if (targetRpm == 0) {
+            setPower(0);
+            return;
+        }
+
+        int newest = readings % positions.length;
+        positions[newest] = position;
+        times[newest] = nanos;
+        readings++;
+
+        // need two readings for a speed; until then spin up on feedforward alone
+        if (readings < 2) {
+            setPower(feedforward());
+            return;
+        }
+        int oldest = readings > positions.length ? readings % positions.length : 0;
+        double dt = (times[newest] - times[oldest]) / 1e9;
+        if (dt <= 0) {
+            return;
+        }
+        lastRpm = rpm;
+        rpm = (positions[newest] - positions[oldest]) / COUNTS_PER_REV / dt * 60;
+        double cycleDt = (times[newest] - times[(newest + positions.length - 1) % positions.length]) / 1e9;
+
+        double error = targetRpm - rpm;
+        double derivative = readings > 2 && cycleDt > 0 ? (rpm - lastRpm) / cycleDt : 0;
+        double output = feedforward() + KP * error + integral - KD * derivative;
+
+        // don't wind up while the motors are already flat out
+        if ((output < 1 || error < 0) && (output > 0 || error > 0)) {
+            integral = clip(integral + KI * error * cycleDt, -MAX_INTEGRAL, MAX_INTEGRAL);
+        }
+
+        // a flywheel only ever drives one way; coasting is as much braking as it needs
+        setPower(targetRpm > 0 ? clip(output, 0, 1) : clip(output, -1, 0));
+        updateReadiness(error, nanos);
+    }
+
+    private void updateReadiness(double error, long nanos) {
+        if (atSpeed && error > SHOT_DROP_RPM) {
+            atSpeed = false;
+            recovering = true;
+            shotNanos = nanos;
+            shots++;
+        }
+
+        if (Math.abs(error) <= TOLERANCE_RPM) {
+            samplesInTolerance++;
+        } else {
+            samplesInTolerance = 0;
+        }
+
+        if (!atSpeed && samplesInTolerance >= AT_SPEED_SAMPLES) {
+            atSpeed = true;
+            if (recovering) {
+                recovering = false;
+                lastRecoveryMillis = (nanos - shotNanos) / 1e6;
+                maxRecoveryMillis = Math.max(maxRecoveryMillis, lastRecoveryMillis);
+                totalRecoveryMillis += lastRecoveryMillis;
+            }
+        }
+    }
+
+    // the power that holds the target on this battery with nothing else going on
+    private double feedforward() {
+        double volts = voltage != null ? voltage.getVoltage() : 0;
+        if (volts <= 0) {
+            volts = VoltageMonitor.NOMINAL_VOLTS;
+        }
+        return targetRpm / RPM_PER_POWER * VoltageMonitor.NOMINAL_VOLTS / volts;
+    }
+
+    private void setPower(double power) {
+        this.power = power;
+        for (MotorDevice motor : motors) {
+            motor.setPower(power);
+        }
+    }
+
+    /** Ready to shoot: at the target speed and settled there. */
+    public boolean isAtSpeed() {
+        return atSpeed;
+    }
+
+    public double getRpm() {
+        return rpm;
+    }
+
+    public double getPower() {
+        return power;
+    }
+
+    /** Last encoder reading it was given (0 before the first). */
+    public int getPosition() {
+        return readings == 0 ? 0 : positions[(readings - 1) % positions.length];
+    }
+
+    /** Shots seen since the controller was made. */
+    public int getShots() {
+        return shots;
+    }
+
+    /** Milliseconds from the last shot until back at speed, 0 before the first recovery. */
+    public double getLastRecoveryMillis() {
+        return lastRecoveryMillis;
+    }
+
+    public double getMaxRecoveryMillis() {
+        return maxRecoveryMillis;
+    }
+
+    public double getMeanRecoveryMillis() {
+        int recovered = recovering ? shots - 1 : shots;
+        return recovered == 0 ? 0 : totalRecoveryMillis / recovered;
+    }
+
+    private static double clip(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
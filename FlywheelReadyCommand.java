@@ -0,0 +1,46 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Waits until the flywheel is at speed, so a shot only goes once it will go the right distance.
+ * Gives up after the timeout rather than holding up the routine if the wheel never gets there
+ * (low battery, jammed ball); {@link #wasReady()} says which it was.
+ */
+public class FlywheelReadyCommand implements Command {
+
+    public static final long TIMEOUT_MILLIS = 2000;
+
+    private final CraigLauncherHardware robot;
+    private final long timeoutMillis;
+    private long startNanos;
+
+    public FlywheelReadyCommand(CraigLauncherHardware robot) {
+        this(robot, TIMEOUT_MILLIS);
+    }
+
+    public FlywheelReadyCommand(CraigLauncherHardware robot, long timeoutMillis) {
+        this.robot = robot;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void start() {
+        startNanos = robot.clock.nanoTime();
+    }
+
+    @Override
+    public void execute() {
+    }
+
+    @Override
+    public boolean isFinished() {
+        return wasReady() || robot.clock.nanoTime() - startNanos >= timeoutMillis * 1000000L;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+    }
+
+    public boolean wasReady() {
+        return robot.flywheel.isAtSpeed();
+    }
+}
@@ -0,0 +1,148 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Reads every sensor value we care about once per control cycle and keeps it in primitive fields.
+ *
+ * Everything else in the cycle (commands, telemetry) reads from here instead of going back to the
+ * hardware, so each encoder, busy flag, the battery voltage and each color channel costs one bus
+ * round trip per cycle no matter how many places use it. The color sensor and the shooter encoder
+ * are only read while something asks for them (setReadColor(), setReadShooter()).
+ */
+public class HardwareSnapshot {
+
+    public static final int LEFT_FRONT = 0;
+    public static final int RIGHT_FRONT = 1;
+    public static final int LEFT_BACK = 2;
+    public static final int RIGHT_BACK = 3;
+
+    private final MotorDevice[] motors = new MotorDevice[4];
+    private VoltageDevice voltageSensor;
+    private ColorDevice colorSensor;
+    private MotorDevice shooter;
+    private boolean readShooter;
+    private boolean readColor;
+    private boolean colorFresh;
+
+    private final int[] position = new int[4];
+    private final boolean[] busy = new boolean[4];
+    private double voltage;
+    private int red;
+    private int green;
+    private int blue;
+    private int shooterPosition;
+
+    private long cycle;
+    private long timestampNanos;
+
+    private final Clock clock;
+
+    public HardwareSnapshot(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void setDriveMotors(MotorDevice leftFront, MotorDevice rightFront, MotorDevice leftBack, MotorDevice rightBack) {
+        motors[LEFT_FRONT] = leftFront;
+        motors[RIGHT_FRONT] = rightFront;
+        motors[LEFT_BACK] = leftBack;
+        motors[RIGHT_BACK] = rightBack;
+    }
+
+    public void setVoltageSensor(VoltageDevice voltageSensor) {
+        this.voltageSensor = voltageSensor;
+    }
+
+    public void setColorSensor(ColorDevice colorSensor) {
+        this.colorSensor = colorSensor;
+    }
+
+    /** Whether update() reads the color sensor; three bus reads, so only while something samples it. */
+    public void setReadColor(boolean readColor) {
+        this.readColor = readColor;
+    }
+
+    /** The motor whose encoder measures the shooter flywheel; read only while setReadShooter(true). */
+    public void setShooterMotor(MotorDevice shooter) {
+        this.shooter = shooter;
+    }
+
+    /** Whether update() reads the shooter encoder; only worth the bus read while the flywheel runs. */
+    public void setReadShooter(boolean readShooter) {
+        this.readShooter = readShooter;
+    }
+
+    /** Takes a fresh snapshot. Call this exactly once at the top of each control cycle. */
+    public void update() {
+        for (int i = 0; i < motors.length; i++) {
+            if (motors[i] != null) {
+                position[i] = motors[i].getCurrentPosition();
+                busy[i] = motors[i].isBusy();
+            }
+        }
+
+        if (voltageSensor != null) {
+            voltage = voltageSensor.getVoltage();
+        }
+
+        colorFresh = colorSensor != null && readColor;
+        if (colorFresh) {
+            red = colorSensor.red();
+            green = colorSensor.green();
+            blue = colorSensor.blue();
+        }
+
+        if (shooter != null && readShooter) {
+            shooterPosition = shooter.getCurrentPosition();
+        }
+
+        timestampNanos = clock.nanoTime();
+        cycle++;
+    }
+
+    public int getPosition(int motor) {
+        return position[motor];
+    }
+
+    public boolean isBusy(int motor) {
+        return busy[motor];
+    }
+
+    /** True if all four drive motors were still running to their targets. */
+    public boolean isDriveBusy() {
+        return busy[LEFT_FRONT] && busy[RIGHT_FRONT] && busy[LEFT_BACK] && busy[RIGHT_BACK];
+    }
+
+    public double getVoltage() {
+        return voltage;
+    }
+
+    /** True if the last update() read the color sensor; otherwise the channels are an older reading. */
+    public boolean isColorFresh() {
+        return colorFresh;
+    }
+
+    public int getRed() {
+        return red;
+    }
+
+    public int getGreen() {
+        return green;
+    }
+
+    public int getBlue() {
+        return blue;
+    }
+
+    /** Last shooter encoder reading; stale while it isn't being read. */
+    public int getShooterPosition() {
+        return shooterPosition;
+    }
+
+    /** Increments on every update(), so commands can tell whether they are looking at a fresh read. */
+    public long getCycle() {
+        return cycle;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
@@ -0,0 +1,176 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the independent bits of opmode init (drive motors, color sensor, Vuforia, ...) side by
+ * side on a few threads instead of one after the other, and times each one.
+ *
+ * Tasks start as soon as they are added. The opmode then waits only on the ones its routine
+ * can't do without; anything else (e.g. Vuforia for a routine that can manage without the camera)
+ * carries on in the background and is used once it's ready.
+ *
+ * Task bodies run off the opmode thread, so they shouldn't touch telemetry, and what they set
+ * up is only safe to use once {@link Task#isDone()} says so.
+ */
+public class InitTasks {
+
+    // Vuforia, drive and color at the same time; more threads wouldn't help on the phone
+    public static final int THREADS = 3;
+
+    /** One setup step and how long it took. */
+    public static class Task implements Runnable {
+        private final String name;
+        private final Runnable body;
+        private final Clock clock;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile Throwable failure;
+
+        Task(String name, Runnable body, Clock clock) {
+            this.name = name;
+            this.body = body;
+            this.clock = clock;
+        }
+
+        @Override
+        public void run() {
+            startNanos = clock.nanoTime();
+            try {
+                body.run();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                endNanos = clock.nanoTime();
+                done.countDown();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Everything the task body did happens-before this returns true: countDown() and the
+         * latch count read here are a volatile write and read. So fields the body assigned can be
+         * read without locking once the task is seen done, and not before.
+         */
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        /** What the task threw, or null if it hasn't (or hasn't finished). */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        /** How long the task ran for, 0 until it has finished. */
+        public double getMillis() {
+            return isDone() ? (endNanos - startNanos) / 1e6 : 0;
+        }
+
+        /** Waits up to timeoutMillis for the task to finish. */
+        public boolean await(long timeoutMillis) throws InterruptedException {
+            return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final Clock clock;
+    private final List<Task> tasks = new ArrayList<Task>();
+    private final long createdNanos;
+    private ExecutorService executor;
+
+    public InitTasks(Clock clock) {
+        this.clock = clock;
+        this.createdNanos = clock.nanoTime();
+    }
+
+    /** Starts body on one of the init threads. */
+    public synchronized Task add(String name, Runnable body) {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+                private int count;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "InitTasks-" + (++count));
+                    // don't keep the app alive for a task nobody is waiting on any more
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        Task task = new Task(name, body, clock);
+        tasks.add(task);
+        executor.execute(task);
+        return task;
+    }
+
+    /** True once every one of the given tasks has finished (successfully or not). */
+    public static boolean allDone(Task... needed) {
+        for (Task task : needed) {
+            if (!task.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The first of the given tasks that failed, or null. */
+    public static Task firstFailure(Task... needed) {
+        for (Task task : needed) {
+            if (task.getFailure() != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /** Milliseconds since this was created, i.e. since init started. */
+    public double getElapsedMillis() {
+        return (clock.nanoTime() - createdNanos) / 1e6;
+    }
+
+    public synchronized int getTaskCount() {
+        return tasks.size();
+    }
+
+    public synchronized Task getTask(int i) {
+        return tasks.get(i);
+    }
+
+    /** e.g. "drive 180 ms, color 35 ms, vision running" */
+    public synchronized String summary() {
+        StringBuilder text = new StringBuilder();
+        for (Task task : tasks) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(task.getName());
+            if (!task.isDone()) {
+                text.append(" running");
+            } else if (task.getFailure() != null) {
+                text.append(" FAILED");
+            } else {
+                text.append(String.format(Locale.US, " %.0f ms", task.getMillis()));
+            }
+        }
+        return text.toString();
+    }
+
+    /** Lets the threads go once the queued tasks are done; running tasks are not interrupted. */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
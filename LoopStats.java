@@ -0,0 +1,158 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Records how long each iteration of a named loop takes, in a fixed-size histogram.
+ *
+ * Call {@link #mark()} once per iteration. Memory use never grows: durations go into
+ * {@value #BUCKETS} buckets of {@value #BUCKET_MICROS} us each (anything slower lands in the last
+ * bucket, the exact max is tracked separately). From that we get p50/p99/max and the loop rate,
+ * which can be shown on telemetry while running and written to a log file when the opmode stops.
+ */
+public class LoopStats {
+
+    public static final int BUCKETS = 1000;
+    public static final int BUCKET_MICROS = 100;     // 1000 x 0.1 ms = 0 to 100 ms
+
+    public static final String LOG_DIR = "/sdcard/FIRST/loopstats";
+
+    private final String name;
+    private final int[] histogram = new int[BUCKETS];
+
+    // captions built once so reporting every loop doesn't concatenate Strings
+    private final String hzCaption;
+    private final String p50Caption;
+    private final String p99Caption;
+    private final String maxCaption;
+
+    private long lastNanos = 0;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public LoopStats(String name) {
+        this.name = name;
+        hzCaption = name + " Hz";
+        p50Caption = name + " p50 ms";
+        p99Caption = name + " p99 ms";
+        maxCaption = name + " max ms";
+    }
+
+    /** Marks the end of one iteration and the start of the next. */
+    public void mark() {
+        long now = System.nanoTime();
+        if (lastNanos != 0) {
+            record(now - lastNanos);
+        }
+        lastNanos = now;
+    }
+
+    /**
+     * Forgets where the last iteration ended, e.g. when a loop is re-entered after a pause,
+     * so the pause isn't counted as one very long iteration.
+     */
+    public void restart() {
+        lastNanos = 0;
+    }
+
+    public void record(long nanos) {
+        int bucket = (int) (nanos / (BUCKET_MICROS * 1000L));
+        if (bucket >= BUCKETS) {
+            bucket = BUCKETS - 1;
+        }
+        histogram[bucket]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** Upper edge of the bucket holding the given percentile (0 to 100), in milliseconds. */
+    public double percentileMs(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * BUCKET_MICROS / 1000.0, getMaxMs());
+            }
+        }
+        return getMaxMs();
+    }
+
+    public double getMaxMs() {
+        return maxNanos / 1e6;
+    }
+
+    public double getHz() {
+        return totalNanos == 0 ? 0 : count / (totalNanos / 1e9);
+    }
+
+    /**
+     * Puts the stats on the dashboard. Call every loop; the percentiles are only worked out when
+     * the dashboard is about to send, so the stats don't add to the loop time they measure.
+     */
+    public void report(TelemetryPublisher dashboard) {
+        if (!dashboard.isDue()) {
+            return;
+        }
+        dashboard.put(hzCaption, getHz(), 0);
+        dashboard.put(p50Caption, percentileMs(50), 1);
+        dashboard.put(p99Caption, percentileMs(99), 1);
+        dashboard.put(maxCaption, getMaxMs(), 1);
+    }
+
+    public String summary() {
+        return String.format(Locale.US, "%s: %d loops, %.1f Hz, p50 %.1f ms, p99 %.1f ms, max %.1f ms",
+                name, count, getHz(), percentileMs(50), percentileMs(99), getMaxMs());
+    }
+
+    /**
+     * Appends a summary line per loop to LOG_DIR/opModeName.txt. Meant to be called once the
+     * opmode's loop has ended; failures are logged and otherwise ignored.
+     */
+    public static void save(String opModeName, LoopStats... stats) {
+        File dir = new File(LOG_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            RobotLog.e("LoopStats: could not create " + LOG_DIR);
+            return;
+        }
+
+        PrintWriter out = null;
+        try {
+            out = new PrintWriter(new FileWriter(new File(dir, opModeName + ".txt"), true));
+            out.println("# " + opModeName + " " + System.currentTimeMillis());
+            for (LoopStats loop : stats) {
+                out.println(loop.summary());
+            }
+        } catch (IOException e) {
+            RobotLog.e("LoopStats: could not write stats: " + e.getMessage());
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+}
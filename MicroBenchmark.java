@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * One benchmark for {@link BenchmarkRunner}: setup() once, then op() as many times as the runner
+ * wants. op() returns something derived from its work so the JIT can't throw the work away.
+ */
+public abstract class MicroBenchmark {
+
+    public abstract String getName();
+
+    public void setup() {
+    }
+
+    public abstract long op(int i);
+}
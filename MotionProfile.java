@@ -0,0 +1,143 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Velocity and acceleration limited profile for one straight move: speeds up, cruises, slows down.
+ *
+ * TRAPEZOID ramps at constant acceleration. S_CURVE ramps along a half cosine instead, so the
+ * acceleration itself starts and ends at zero (no jerk at the corners), which keeps the wheels
+ * from slipping when we ask for a high peak speed. Both never exceed maxAcceleration.
+ *
+ * Distances may be negative; the profile is worked out on the magnitude and the sign put back.
+ * Units are whatever the caller uses (we use inches and seconds).
+ */
+public class MotionProfile {
+
+    public enum Shape {
+        TRAPEZOID,
+        S_CURVE
+    }
+
+    private final Shape shape;
+    private final double sign;
+    private final double distance;
+    private final double peakVelocity;
+    private final double rampTime;
+    private final double rampDistance;
+    private final double cruiseTime;
+
+    public MotionProfile(double distance, double maxVelocity, double maxAcceleration, Shape shape) {
+        this.shape = shape;
+        this.sign = distance < 0 ? -1 : 1;
+        this.distance = Math.abs(distance);
+
+        // a ramp up to v covers v^2 / 2a as a trapezoid, and pi v^2 / 4a as a half cosine
+        double rampFactor = shape == Shape.S_CURVE ? Math.PI / 4 : 0.5;
+        double velocity = maxVelocity;
+        if (2 * rampFactor * velocity * velocity / maxAcceleration > this.distance) {
+            // too short to reach full speed: speed up and slow down straight away
+            velocity = Math.sqrt(this.distance * maxAcceleration / (2 * rampFactor));
+        }
+
+        peakVelocity = velocity;
+        rampTime = velocity == 0 ? 0 :
+                (shape == Shape.S_CURVE ? Math.PI * velocity / (2 * maxAcceleration) : velocity / maxAcceleration);
+        rampDistance = velocity * rampTime / 2;
+        cruiseTime = velocity == 0 ? 0 : (this.distance - 2 * rampDistance) / velocity;
+    }
+
+    public double getDuration() {
+        return 2 * rampTime + cruiseTime;
+    }
+
+    public double getDistance() {
+        return sign * distance;
+    }
+
+    public double getPeakVelocity() {
+        return peakVelocity;
+    }
+
+    /** Where we should be t seconds into the move. */
+    public double position(double t) {
+        if (t <= 0) {
+            return 0;
+        }
+        if (t >= getDuration()) {
+            return sign * distance;
+        }
+        if (t < rampTime) {
+            return sign * rampPosition(t);
+        }
+        if (t < rampTime + cruiseTime) {
+            return sign * (rampDistance + peakVelocity * (t - rampTime));
+        }
+        // slowing down is the ramp up played backwards from the end
+        return sign * (distance - rampPosition(getDuration() - t));
+    }
+
+    /** How fast we should be going t seconds into the move. */
+    public double velocity(double t) {
+        if (t <= 0 || t >= getDuration()) {
+            return 0;
+        }
+        if (t < rampTime) {
+            return sign * rampVelocity(t);
+        }
+        if (t < rampTime + cruiseTime) {
+            return sign * peakVelocity;
+        }
+        return sign * rampVelocity(getDuration() - t);
+    }
+
+    /** How long into the move until we have covered the given distance (sign ignored). */
+    public double timeAt(double distance) {
+        double target = Math.min(Math.abs(distance), this.distance);
+        // position only ever grows, so halve the bracket until it is well under a cycle
+        double low = 0;
+        double high = getDuration();
+        for (int i = 0; i < 30; i++) {
+            double mid = (low + high) / 2;
+            if (sign * position(mid) < target) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    /** How hard we should be speeding up (negative when slowing down) t seconds into the move. */
+    public double acceleration(double t) {
+        if (t <= 0 || t >= getDuration()) {
+            return 0;
+        }
+        if (t < rampTime) {
+            return sign * rampAcceleration(t);
+        }
+        if (t < rampTime + cruiseTime) {
+            return 0;
+        }
+        return -sign * rampAcceleration(getDuration() - t);
+    }
+
+    private double rampPosition(double t) {
+        if (shape == Shape.S_CURVE) {
+            return peakVelocity / 2 * (t - rampTime / Math.PI * Math.sin(Math.PI * t / rampTime));
+        }
+        return peakVelocity / rampTime * t * t / 2;
+    }
+
+    private double rampVelocity(double t) {
+        if (shape == Shape.S_CURVE) {
+            return peakVelocity / 2 * (1 - Math.cos(Math.PI * t / rampTime));
+        }
+        return peakVelocity / rampTime * t;
+    }
+
+    private double rampAcceleration(double t) {
+        if (shape == Shape.S_CURVE) {
+            return peakVelocity / 2 * Math.PI / rampTime * Math.sin(Math.PI * t / rampTime);
+        }
+        return peakVelocity / rampTime;
+    }
+}
@@ -0,0 +1,30 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * The parts of a DcMotor the robot code uses. Implemented by {@link SdkDeviceMap} on top of the
+ * real hardware and by {@link SimMotor} in simulation.
+ */
+public interface MotorDevice {
+
+    enum Mode {
+        RUN_WITHOUT_ENCODER,
+        RUN_USING_ENCODER,
+        RUN_TO_POSITION,
+        STOP_AND_RESET_ENCODER
+    }
+
+    /** Same as DcMotor.Direction.REVERSE: flips both the power and the encoder count. */
+    void setReversed(boolean reversed);
+
+    void setMode(Mode mode);
+
+    void setPower(double power);
+
+    double getPower();
+
+    void setTargetPosition(int position);
+
+    int getCurrentPosition();
+
+    boolean isBusy();
+}
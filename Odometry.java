@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Dead reckoning from the four drive encoders: where the robot has got to since it was set down,
+ * in inches and radians (counterclockwise positive).
+ *
+ * Each update takes how far each side has moved since the last one (front and back averaged) and
+ * moves the pose along the arc those two distances trace out. Everything is primitive fields so
+ * it costs a few multiplies per cycle and can run in every loop, auton or teleop.
+ *
+ * Only as good as the wheels' grip; {@link PoseEstimator} uses the per-update deltas from here and
+ * corrects with Vuforia.
+ */
+public class Odometry {
+
+    // below this heading change an arc is as good as straight, and R = d / dHeading blows up
+    private static final double STRAIGHT_EPSILON = 1e-6;
+
+    private double x;
+    private double y;
+    private double heading;
+
+    private boolean haveEncoders;
+    private int lastLeftCounts;
+    private int lastRightCounts;
+
+    private double leftDelta;
+    private double rightDelta;
+    private long updates;
+
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /** Once per cycle after the snapshot is read. */
+    public void update(HardwareSnapshot snapshot) {
+        update(snapshot.getPosition(HardwareSnapshot.LEFT_FRONT), snapshot.getPosition(HardwareSnapshot.LEFT_BACK),
+                snapshot.getPosition(HardwareSnapshot.RIGHT_FRONT), snapshot.getPosition(HardwareSnapshot.RIGHT_BACK));
+    }
+
+    /** Same, from raw encoder counts, for when there is no snapshot (teleop). */
+    public void update(int leftFront, int leftBack, int rightFront, int rightBack) {
+        // summed rather than averaged so the counts stay whole; halved when converting to inches
+        int leftCounts = leftFront + leftBack;
+        int rightCounts = rightFront + rightBack;
+        if (!haveEncoders) {
+            // nothing to compare against yet
+            haveEncoders = true;
+            lastLeftCounts = leftCounts;
+            lastRightCounts = rightCounts;
+            leftDelta = 0;
+            rightDelta = 0;
+            return;
+        }
+
+        leftDelta = (leftCounts - lastLeftCounts) / (2 * DriveKinematics.COUNTS_PER_INCH);
+        rightDelta = (rightCounts - lastRightCounts) / (2 * DriveKinematics.COUNTS_PER_INCH);
+        lastLeftCounts = leftCounts;
+        lastRightCounts = rightCounts;
+        updates++;
+
+        double distance = (leftDelta + rightDelta) / 2;
+        double dHeading = DriveKinematics.headingChange(leftDelta, rightDelta);
+        x += arcX(distance, heading, dHeading);
+        y += arcY(distance, heading, dHeading);
+        heading = wrap(heading + dHeading);
+    }
+
+    /*
+     *  How far x and y change driving distance inches while the heading goes from heading to
+     *  heading + dHeading: along a circle of radius R = distance / dHeading about the point the
+     *  robot is turning around. The motion model for PoseEstimator too, so the two never drift apart.
+     */
+    static double arcX(double distance, double heading, double dHeading) {
+        if (Math.abs(dHeading) < STRAIGHT_EPSILON) {
+            return distance * Math.cos(heading);
+        }
+        return distance / dHeading * (Math.sin(heading + dHeading) - Math.sin(heading));
+    }
+
+    static double arcY(double distance, double heading, double dHeading) {
+        if (Math.abs(dHeading) < STRAIGHT_EPSILON) {
+            return distance * Math.sin(heading);
+        }
+        return -distance / dHeading * (Math.cos(heading + dHeading) - Math.cos(heading));
+    }
+
+    /** Forgets the last encoder reading, for after the encoders have been reset. Keeps the pose. */
+    public void resetEncoders() {
+        haveEncoders = false;
+        leftDelta = 0;
+        rightDelta = 0;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    /** How far the left side moved in the last update, in inches. */
+    public double getLeftDelta() {
+        return leftDelta;
+    }
+
+    public double getRightDelta() {
+        return rightDelta;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    static double wrap(double angle) {
+        while (angle > Math.PI) {
+            angle -= 2 * Math.PI;
+        }
+        while (angle < -Math.PI) {
+            angle += 2 * Math.PI;
+        }
+        return angle;
+    }
+}
@@ -0,0 +1,60 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Runs several commands at the same time and finishes when all of them are done,
+ * e.g. spinning up the shooter while driving to the shooting position.
+ */
+public class ParallelCommand implements Command {
+
+    private final Command[] commands;
+    private final boolean[] finished;
+
+    public ParallelCommand(Command... commands) {
+        this.commands = commands;
+        this.finished = new boolean[commands.length];
+    }
+
+    @Override
+    public void start() {
+        for (int i = 0; i < commands.length; i++) {
+            finished[i] = false;
+            commands[i].start();
+        }
+    }
+
+    @Override
+    public void execute() {
+        for (int i = 0; i < commands.length; i++) {
+            if (finished[i]) {
+                continue;
+            }
+            commands[i].execute();
+            if (commands[i].isFinished()) {
+                commands[i].end(false);
+                finished[i] = true;
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        for (int i = 0; i < finished.length; i++) {
+            if (!finished[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (!interrupted) {
+            return;
+        }
+        for (int i = 0; i < commands.length; i++) {
+            if (!finished[i]) {
+                commands[i].end(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Keeps track of where the robot is on the field by dead reckoning from the drive encoders
+ * every cycle and pulling the estimate toward Vuforia's pose whenever a target is in view.
+ *
+ * It's an extended Kalman filter on (x, y, heading): the encoders move the estimate along an
+ * arc and grow its uncertainty with distance driven; a vision pose shrinks it again, weighted by
+ * how much we trust each. Units are inches and radians (counterclockwise positive), the same as
+ * {@link RobotPose}.
+ *
+ * The wheel travel comes from {@link Odometry}. Everything is in primitive fields;
+ * {@link #update(Odometry, long, PoseHandoff)} allocates nothing and {@link #getPose()} just hands
+ * back the pose kept up to date by it.
+ */
+public class PoseEstimator {
+
+    // wheel slip and encoder error, variance per inch driven on each side
+    public static final double WHEEL_VARIANCE_PER_INCH = 0.01;
+
+    // how far off a Vuforia pose typically is (1 sigma)
+    public static final double VISION_SIGMA_INCHES = 2.0;
+    public static final double VISION_SIGMA_RADIANS = Math.toRadians(3);
+
+    // until we have seen a target we don't know where on the field we are
+    public static final double UNKNOWN_SIGMA_INCHES = 100;
+    public static final double UNKNOWN_SIGMA_RADIANS = Math.PI;
+
+    // how far off the drive team sets the robot down from its start pose (1 sigma)
+    public static final double START_SIGMA_INCHES = 1.0;
+    public static final double START_SIGMA_RADIANS = Math.toRadians(2);
+
+    private final RobotPose pose = new RobotPose();
+
+    // covariance of (x, y, heading), row major
+    private final double[] p = new double[9];
+
+    // scratch for the update, kept so nothing is allocated per cycle
+    private final double[] s = new double[9];
+    private final double[] sInverse = new double[9];
+    private final double[] k = new double[9];
+    private final double[] next = new double[9];
+
+    private long lastVisionSequence;
+    private long visionFixes;
+
+    public PoseEstimator() {
+        setPose(0, 0, 0, UNKNOWN_SIGMA_INCHES, UNKNOWN_SIGMA_RADIANS);
+    }
+
+    /** Starts from a known pose, e.g. where the robot is set down for auton. */
+    public void setPose(double x, double y, double heading, double sigmaInches, double sigmaRadians) {
+        pose.set(x, y, heading, 0, "set");
+        for (int i = 0; i < 9; i++) {
+            p[i] = 0;
+        }
+        p[0] = sigmaInches * sigmaInches;
+        p[4] = sigmaInches * sigmaInches;
+        p[8] = sigmaRadians * sigmaRadians;
+    }
+
+    /**
+     * Once per cycle after the odometry update: moves the estimate by what the wheels did since
+     * last time, then corrects with the newest vision pose if there is one we haven't used yet.
+     * vision may be null.
+     */
+    public void update(Odometry odometry, long timestampNanos, PoseHandoff vision) {
+        double dLeft = odometry.getLeftDelta();
+        double dRight = odometry.getRightDelta();
+        if (dLeft != 0 || dRight != 0) {
+            predict(dLeft, dRight);
+        }
+        pose.timestampNanos = timestampNanos;
+
+        if (vision != null) {
+            RobotPose fix = vision.latest();
+            if (fix.isKnown() && fix.sequence != lastVisionSequence) {
+                lastVisionSequence = fix.sequence;
+                correct(fix.x, fix.y, fix.heading);
+            }
+        }
+    }
+
+    /** Best estimate as of the last update(). Don't hold on to it across cycles. */
+    public RobotPose getPose() {
+        return pose;
+    }
+
+    /** 1 sigma position uncertainty in inches (the worse of x and y). */
+    public double getPositionSigma() {
+        return Math.sqrt(Math.max(p[0], p[4]));
+    }
+
+    public double getHeadingSigma() {
+        return Math.sqrt(p[8]);
+    }
+
+    public long getVisionFixes() {
+        return visionFixes;
+    }
+
+    /**
+     * Encoder step: move along the same arc as {@link Odometry}, and grow P by F P F^T + G Q G^T.
+     * The wheel noise is mapped in at the mid heading, which is plenty for a variance.
+     */
+    void predict(double dLeft, double dRight) {
+        double w = DriveKinematics.TRACK_WIDTH_INCHES;
+        double distance = (dLeft + dRight) / 2;
+        double dHeading = DriveKinematics.headingChange(dLeft, dRight);
+        double dx = Odometry.arcX(distance, pose.heading, dHeading);
+        double dy = Odometry.arcY(distance, pose.heading, dHeading);
+        double mid = pose.heading + dHeading / 2;
+        double cos = Math.cos(mid);
+        double sin = Math.sin(mid);
+
+        pose.x += dx;
+        pose.y += dy;
+        pose.heading = Odometry.wrap(pose.heading + dHeading);
+        pose.source = "odometry";
+
+        // F = [1 0 a; 0 1 b; 0 0 1], the arc's dx and dy differentiated by the starting heading
+        double a = -dy;
+        double b = dx;
+        double p00 = p[0] + a * (p[6] + p[2]) + a * a * p[8];
+        double p01 = p[1] + a * p[7] + b * p[2] + a * b * p[8];
+        double p02 = p[2] + a * p[8];
+        double p11 = p[4] + b * (p[7] + p[5]) + b * b * p[8];
+        double p12 = p[5] + b * p[8];
+        double p22 = p[8];
+
+        // G maps (dLeft, dRight) noise into the state
+        double qLeft = WHEEL_VARIANCE_PER_INCH * Math.abs(dLeft);
+        double qRight = WHEEL_VARIANCE_PER_INCH * Math.abs(dRight);
+        double gxl = 0.5 * cos + distance * sin / (2 * w);
+        double gxr = 0.5 * cos - distance * sin / (2 * w);
+        double gyl = 0.5 * sin - distance * cos / (2 * w);
+        double gyr = 0.5 * sin + distance * cos / (2 * w);
+        double gtl = -1 / w;
+        double gtr = 1 / w;
+
+        p[0] = p00 + gxl * gxl * qLeft + gxr * gxr * qRight;
+        p[4] = p11 + gyl * gyl * qLeft + gyr * gyr * qRight;
+        p[8] = p22 + gtl * gtl * qLeft + gtr * gtr * qRight;
+        p[1] = p[3] = p01 + gxl * gyl * qLeft + gxr * gyr * qRight;
+        p[2] = p[6] = p02 + gxl * gtl * qLeft + gxr * gtr * qRight;
+        p[5] = p[7] = p12 + gyl * gtl * qLeft + gyr * gtr * qRight;
+    }
+
+    /** Vision step: we measure the whole state directly, so H = I and K = P (P + R)^-1. */
+    void correct(double x, double y, double heading) {
+        double rxy = VISION_SIGMA_INCHES * VISION_SIGMA_INCHES;
+        double rh = VISION_SIGMA_RADIANS * VISION_SIGMA_RADIANS;
+
+        for (int i = 0; i < 9; i++) {
+            s[i] = p[i];
+        }
+        s[0] += rxy;
+        s[4] += rxy;
+        s[8] += rh;
+        if (!invert3(s, sInverse)) {
+            return;
+        }
+        multiply3(p, sInverse, k);
+
+        double ex = x - pose.x;
+        double ey = y - pose.y;
+        double eh = Odometry.wrap(heading - pose.heading);
+        pose.x += k[0] * ex + k[1] * ey + k[2] * eh;
+        pose.y += k[3] * ex + k[4] * ey + k[5] * eh;
+        pose.heading = Odometry.wrap(pose.heading + k[6] * ex + k[7] * ey + k[8] * eh);
+        pose.source = "vision";
+
+        // P = (I - K) P
+        multiply3(k, p, next);
+        for (int i = 0; i < 9; i++) {
+            p[i] -= next[i];
+        }
+        visionFixes++;
+    }
+
+    private static void multiply3(double[] a, double[] b, double[] out) {
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                out[r * 3 + c] = a[r * 3] * b[c] + a[r * 3 + 1] * b[3 + c] + a[r * 3 + 2] * b[6 + c];
+            }
+        }
+    }
+
+    private static boolean invert3(double[] m, double[] out) {
+        double c00 = m[4] * m[8] - m[5] * m[7];
+        double c01 = m[5] * m[6] - m[3] * m[8];
+        double c02 = m[3] * m[7] - m[4] * m[6];
+        double det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (Math.abs(det) < 1e-12) {
+            return false;
+        }
+        double inv = 1 / det;
+        out[0] = c00 * inv;
+        out[1] = (m[2] * m[7] - m[1] * m[8]) * inv;
+        out[2] = (m[1] * m[5] - m[2] * m[4]) * inv;
+        out[3] = c01 * inv;
+        out[4] = (m[0] * m[8] - m[2] * m[6]) * inv;
+        out[5] = (m[2] * m[3] - m[0] * m[5]) * inv;
+        out[6] = c02 * inv;
+        out[7] = (m[1] * m[6] - m[0] * m[7]) * inv;
+        out[8] = (m[0] * m[4] - m[1] * m[3]) * inv;
+        return true;
+    }
+}
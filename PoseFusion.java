@@ -0,0 +1,102 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Combines the robot poses worked out from several Vuforia targets seen in the same frame into
+ * one, trusting each according to how well the camera could see it.
+ *
+ * Vuforia's error grows with distance (a target twice as far covers a quarter of the pixels) and
+ * with how obliquely the target is viewed, so each pose is weighted by cos(viewing angle) / d^2.
+ * Targets seen at more than {@link #MAX_VIEW_ANGLE_DEGREES} off square are dropped altogether.
+ * Headings are averaged as unit vectors so poses either side of +-180 degrees don't cancel out.
+ *
+ * Accumulates into primitive fields: reset(), add() each target, then read the result.
+ */
+public class PoseFusion {
+
+    public static final double MAX_VIEW_ANGLE_DEGREES = 70;
+
+    // closer than this the error stops shrinking (the target no longer fits in the frame)
+    public static final double MIN_DISTANCE_INCHES = 12;
+
+    private static final double MIN_COS_VIEW = Math.cos(Math.toRadians(MAX_VIEW_ANGLE_DEGREES));
+
+    private double totalWeight;
+    private double bestWeight;
+    private int best;
+    private int count;
+    private double sumX;
+    private double sumY;
+    private double sumCos;
+    private double sumSin;
+
+    public void reset() {
+        totalWeight = 0;
+        bestWeight = 0;
+        best = -1;
+        count = 0;
+        sumX = 0;
+        sumY = 0;
+        sumCos = 0;
+        sumSin = 0;
+    }
+
+    /**
+     * How much to trust a pose from a target distanceInches from the camera, whose face is at
+     * acos(cosView) to the line of sight. 0 if we shouldn't use it at all.
+     */
+    public static double weight(double distanceInches, double cosView) {
+        if (cosView < MIN_COS_VIEW) {
+            return 0;
+        }
+        double d = Math.max(distanceInches, MIN_DISTANCE_INCHES);
+        return cosView / (d * d);
+    }
+
+    /**
+     * Adds the robot pose worked out from one target. id is whatever the caller uses to tell the
+     * targets apart, see {@link #getBest()}. Returns false if the pose was too poor to use.
+     */
+    public boolean add(int id, double x, double y, double heading, double distanceInches, double cosView) {
+        double w = weight(distanceInches, cosView);
+        if (w <= 0) {
+            return false;
+        }
+        totalWeight += w;
+        sumX += w * x;
+        sumY += w * y;
+        sumCos += w * Math.cos(heading);
+        sumSin += w * Math.sin(heading);
+        if (w > bestWeight) {
+            bestWeight = w;
+            best = id;
+        }
+        count++;
+        return true;
+    }
+
+    /** Number of poses that went into the result. */
+    public int getCount() {
+        return count;
+    }
+
+    /** id of the most trusted pose, -1 if none. */
+    public int getBest() {
+        return best;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    public double getX() {
+        return sumX / totalWeight;
+    }
+
+    public double getY() {
+        return sumY / totalWeight;
+    }
+
+    public double getHeading() {
+        return Math.atan2(sumSin, sumCos);
+    }
+}
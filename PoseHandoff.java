@@ -0,0 +1,43 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the newest pose from one thread (the vision worker) to another (the control loop)
+ * without either of them ever waiting on the other.
+ *
+ * Triple buffered: the writer fills its own pose, then swaps it with the spare in one atomic
+ * step; the reader swaps the spare in only if something new was published. Nothing is copied
+ * or allocated, and a slow reader just skips the poses it missed. One writer thread and one
+ * reader thread only.
+ */
+public class PoseHandoff {
+
+    private static final int FRESH = 4;     // set in spare when it holds a pose the reader hasn't taken
+
+    private final RobotPose[] poses = { new RobotPose(), new RobotPose(), new RobotPose() };
+    private final AtomicInteger spare = new AtomicInteger(1);
+
+    private int back = 0;      // writer's
+    private int front = 2;     // reader's
+    private long published;    // writer's
+
+    /** Writer: the pose to fill in before calling {@link #publish()}. */
+    public RobotPose beginWrite() {
+        return poses[back];
+    }
+
+    /** Writer: makes the filled in pose the newest one. */
+    public void publish() {
+        poses[back].sequence = ++published;
+        back = spare.getAndSet(back | FRESH) & 3;
+    }
+
+    /** Reader: the newest published pose (check isKnown()); stays valid until the next call. */
+    public RobotPose latest() {
+        if ((spare.get() & FRESH) != 0) {
+            front = spare.getAndSet(front) & 3;
+        }
+        return poses[front];
+    }
+}
@@ -0,0 +1,75 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * 4x4 rigid transform math on plain float[16] arrays, laid out column-major like OpenGLMatrix
+ * (element row r, column c is at [c * 4 + r]), so Vuforia's matrices copy straight in.
+ *
+ * Nothing here allocates: callers keep their own arrays (from {@link #create()}) and reuse
+ * them every loop. Outputs must not be the same array as an input.
+ */
+public class PoseMath {
+
+    public static final int SIZE = 16;
+
+    /** A new identity transform; allocate these up front, not in a loop. */
+    public static float[] create() {
+        float[] m = new float[SIZE];
+        identity(m);
+        return m;
+    }
+
+    public static void identity(float[] m) {
+        for (int i = 0; i < SIZE; i++) {
+            m[i] = 0;
+        }
+        m[0] = 1;
+        m[5] = 1;
+        m[10] = 1;
+        m[15] = 1;
+    }
+
+    /** out = a x b, i.e. do b first, then a (same order as OpenGLMatrix.multiplied). */
+    public static void multiply(float[] a, float[] b, float[] out) {
+        for (int c = 0; c < 4; c++) {
+            for (int r = 0; r < 4; r++) {
+                out[c * 4 + r] = a[r] * b[c * 4]
+                        + a[4 + r] * b[c * 4 + 1]
+                        + a[8 + r] * b[c * 4 + 2]
+                        + a[12 + r] * b[c * 4 + 3];
+            }
+        }
+    }
+
+    /** Inverse of a rotation + translation (which is all Vuforia hands us): transpose R, out t = -R^T t. */
+    public static void invertRigid(float[] m, float[] out) {
+        for (int c = 0; c < 3; c++) {
+            for (int r = 0; r < 3; r++) {
+                out[c * 4 + r] = m[r * 4 + c];
+            }
+        }
+        out[12] = -(m[0] * m[12] + m[1] * m[13] + m[2] * m[14]);
+        out[13] = -(m[4] * m[12] + m[5] * m[13] + m[6] * m[14]);
+        out[14] = -(m[8] * m[12] + m[9] * m[13] + m[10] * m[14]);
+        out[3] = 0;
+        out[7] = 0;
+        out[11] = 0;
+        out[15] = 1;
+    }
+
+    public static float getX(float[] m) {
+        return m[12];
+    }
+
+    public static float getY(float[] m) {
+        return m[13];
+    }
+
+    public static float getZ(float[] m) {
+        return m[14];
+    }
+
+    /** Rotation about the field z axis in radians, from where the transform points its x axis. */
+    public static double getHeading(float[] m) {
+        return Math.atan2(m[1], m[0]);
+    }
+}
@@ -0,0 +1,198 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * A relative move like {@link DriveCommand}, but instead of handing the controller a target and
+ * a constant power, it follows a {@link MotionProfile}: every cycle it works out where each side
+ * should be and how fast it should be going, and sets the power from that (feedforward) plus a
+ * correction for how far off we are (feedback).
+ *
+ * Because it speeds up and slows down smoothly we can run a much higher peak speed than
+ * DRIVE_SPEED without overshooting or skidding. For turns (sides going opposite ways) the side
+ * with the shorter distance follows the same profile scaled down.
+ *
+ * Like {@link DriveCommand}, the right side goes DriveKinematics.swerve() further (and faster) than
+ * asked to make up for its drift, so the profile is only worked out in start() once the battery
+ * voltage is known. The peak speed is capped so the feedforward (speed plus KA times
+ * acceleration) never asks for more than {@link #FEEDFORWARD_LIMIT} of full power. It only gets
+ * there halfway up a ramp; the cruise speed sits KA times acceleration below it, and that is
+ * what the KP correction has to work with. See {@link #plan} for how the acceleration is picked.
+ *
+ * Move will finish if the profile is done and both sides are within tolerance, or it times out,
+ * or the driver stops the opmode (the scheduler interrupts us).
+ */
+public class ProfiledDriveCommand implements DriveMove {
+
+    public static final double KP = 0.1;                            // power per inch behind
+    public static final double KA = 0.12;                           // motors lag about this many seconds
+    public static final double POSITION_TOLERANCE_INCHES = 0.5;
+
+    // most of full power the feedforward may use
+    public static final double FEEDFORWARD_LIMIT = 1.0;
+
+    // accelerations plan() tries, evenly spaced up to the limit
+    public static final int ACCELERATION_STEPS = 16;
+
+    private final CraigLauncherHardware robot;
+    private final double leftInches;
+    private final double rightInches;
+    private final double maxVelocity;
+    private final double maxAcceleration;
+    private final MotionProfile.Shape shape;
+    private final double timeoutS;
+    private MotionProfile profile;
+
+    // right side distance with the swerve correction, set in start()
+    private double rightTarget;
+
+    // each side's share of the profile, -1 to 1
+    private double leftScale;
+    private double rightScale;
+
+    private long startNanos;
+    private double leftStart;
+    private double rightStart;
+    private double leftError;
+    private double rightError;
+
+    public ProfiledDriveCommand(CraigLauncherHardware robot, double leftInches, double rightInches,
+                                double maxVelocity, double maxAcceleration,
+                                MotionProfile.Shape shape, double timeoutS) {
+        this.robot = robot;
+        this.leftInches = leftInches;
+        this.rightInches = rightInches;
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.shape = shape;
+        this.timeoutS = timeoutS;
+    }
+
+    /**
+     * The highest cruise speed whose feedforward stays within FEEDFORWARD_LIMIT at this
+     * acceleration. On a half cosine ramp v + KA a peaks at v/2 + sqrt((v/2)^2 + (KA a)^2),
+     * on a trapezoid at v + KA a.
+     */
+    public static double feedforwardVelocityLimit(double maxAcceleration, MotionProfile.Shape shape) {
+        double limit = FEEDFORWARD_LIMIT * DriveKinematics.MAX_INCHES_PER_SECOND;
+        double lead = KA * maxAcceleration;
+        if (shape == MotionProfile.Shape.S_CURVE) {
+            return Math.max(0, (limit * limit - lead * lead) / limit);
+        }
+        return Math.max(0, limit - lead);
+    }
+
+    /**
+     * The quickest profile for a move this long. Below maxAcceleration the feedforward limit
+     * allows a higher cruise speed, which pays off on long moves, so we try a few accelerations
+     * up to it and keep whichever gets there first.
+     */
+    public static MotionProfile plan(double distance, double maxVelocity, double maxAcceleration,
+                                     MotionProfile.Shape shape) {
+        MotionProfile best = null;
+        for (int step = 1; step <= ACCELERATION_STEPS; step++) {
+            double acceleration = maxAcceleration * step / ACCELERATION_STEPS;
+            double velocity = Math.min(maxVelocity, feedforwardVelocityLimit(acceleration, shape));
+            if (velocity <= 0) {
+                continue;
+            }
+            MotionProfile profile = new MotionProfile(distance, velocity, acceleration, shape);
+            if (best == null || profile.getDuration() < best.getDuration()) {
+                best = profile;
+            }
+        }
+        return best != null ? best : new MotionProfile(distance, 0, maxAcceleration, shape);
+    }
+
+    @Override
+    public void start() {
+        // resting voltage, so the correction doesn't depend on how hard the last leg was driving
+        double swerve = DriveKinematics.swerve(robot.getRestingVoltage());
+        rightTarget = rightInches * swerve;
+
+        double major = Math.max(Math.abs(leftInches), Math.abs(rightTarget));
+        profile = plan(major, maxVelocity, maxAcceleration, shape);
+        leftScale = major == 0 ? 0 : leftInches / major;
+        rightScale = major == 0 ? 0 : rightTarget / major;
+
+        leftStart = leftInches();
+        rightStart = rightInches();
+        leftError = leftInches;
+        rightError = rightTarget;
+
+        // the controller only holds speed for us, we do the position part
+        robot.leftFront.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        robot.rightFront.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        robot.leftBack.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+        robot.rightBack.setMode(MotorDevice.Mode.RUN_USING_ENCODER);
+
+        startNanos = robot.clock.nanoTime();
+    }
+
+    @Override
+    public void execute() {
+        double t = elapsed();
+        double position = profile.position(t);
+        // lead the speed a little so the wheels keep up while it is changing
+        double velocity = profile.velocity(t) + KA * profile.acceleration(t);
+
+        leftError = leftScale * position - (leftInches() - leftStart);
+        rightError = rightScale * position - (rightInches() - rightStart);
+
+        double leftPower = clip(leftScale * velocity / DriveKinematics.MAX_INCHES_PER_SECOND + KP * leftError);
+        double rightPower = clip(rightScale * velocity / DriveKinematics.MAX_INCHES_PER_SECOND + KP * rightError);
+
+        robot.leftFront.setPower(leftPower);
+        robot.leftBack.setPower(leftPower);
+        robot.rightFront.setPower(rightPower);
+        robot.rightBack.setPower(rightPower);
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (elapsed() >= timeoutS) {
+            return true;
+        }
+        return elapsed() >= profile.getDuration() &&
+                Math.abs(leftError) < POSITION_TOLERANCE_INCHES &&
+                Math.abs(rightError) < POSITION_TOLERANCE_INCHES;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        // Stop all motion;
+        robot.leftFront.setPower(0);
+        robot.rightFront.setPower(0);
+        robot.leftBack.setPower(0);
+        robot.rightBack.setPower(0);
+    }
+
+    @Override
+    public double getErrorInches() {
+        return Math.max(Math.abs(leftInches - (leftInches() - leftStart)),
+                Math.abs(rightTarget - (rightInches() - rightStart)));
+    }
+
+    /** The profile being followed, null until start(). */
+    public MotionProfile getProfile() {
+        return profile;
+    }
+
+    private double elapsed() {
+        return (robot.clock.nanoTime() - startNanos) / 1e9;
+    }
+
+    private double leftInches() {
+        HardwareSnapshot snapshot = robot.snapshot;
+        return DriveKinematics.countsToInches((snapshot.getPosition(HardwareSnapshot.LEFT_FRONT) +
+                snapshot.getPosition(HardwareSnapshot.LEFT_BACK)) / 2.0);
+    }
+
+    private double rightInches() {
+        HardwareSnapshot snapshot = robot.snapshot;
+        return DriveKinematics.countsToInches((snapshot.getPosition(HardwareSnapshot.RIGHT_FRONT) +
+                snapshot.getPosition(HardwareSnapshot.RIGHT_BACK)) / 2.0);
+    }
+
+    private static double clip(double power) {
+        return Math.max(-1, Math.min(1, power));
+    }
+}
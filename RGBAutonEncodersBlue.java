@@ -64,60 +64,33 @@ import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 @Autonomous(name="CraigLauncher: Both Beacons and Cap Ball Park BLUE", group="CraigLauncher")
 public class RGBAutonEncodersBlue extends CraigLauncherAuton {
 
-    /* Declare OpMode members. */
-    private String teamColor = "blue";
-
     @Override
     public void runOpMode() {
 
-        setup();
-        setupColor();
+        try {
+            InitTasks.Task drive = setup();
+            InitTasks.Task color = setupColor();
+
+            // the camera only helps aim for the right button, so don't hold up init for it
+            setupVision();
+            waitForInit(drive, color);
 
-        // Wait for the game to start (driver presses PLAY)
-        waitForStart();
+            // Wait for the game to start (driver presses PLAY)
+            waitForStart();
 
-        runRoutine(0);
+            runRoutine(0);
+        } finally {
+            shutdown();
+        }
 
+        reportLoopStats();
         telemetry.addData("Path", "Complete");
         telemetry.update();
     }
 
     public void runRoutine(long delay) {
-        // Step through each leg of the path,
-        // Note: Reverse movement is obtained by setting a negative distance (not speed)
-        // (-,+) is turn left; (+,-) is turn right
-        // Max time values are commented for each robot operation (not including delayO
-
-        sleep(delay);
-
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED,  25, 25, 5.0);  // 3
-        encoderDrive(CraigLauncherAuton.TURN_SPEED,   7, -7, 3.0);  // 4
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED,  23, 23, 3.0);
-        encoderDrive(CraigLauncherAuton.TURN_SPEED,   10, -10, 3.0);  // 4
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED, 25, 25, 5.0);  // 6
-        String color = beaconDetect();  // 8
-        if (!color.equals(teamColor) && !color.equals("null")) {  // 13
-            sleep(5000);
-            encoderDrive(DRIVE_SPEED, -3, -3, 3.0);
-            encoderDrive(DRIVE_SPEED, 4, 4, 3.0);
-        }
-        encoderDrive(DRIVE_SPEED, -10, -10, 3.0); // 17
-
-        // ADD CHECK FOR TIME TO ENSURE WRONG BUTTON IS NOT PRESSED
-        encoderDrive(CraigLauncherAuton.TURN_SPEED, -17, 17, 3.0);  // 18
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED,  46,  46, 5.0);  // 21
-        encoderDrive(CraigLauncherAuton.TURN_SPEED,   17, -17, 3.0);  // 22
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED, 15, 15, 3.0);  // 23
-        color = beaconDetect();  // 24
-        if (!color.equals(teamColor) && !color.equals("null")) {  // 29
-            sleep(5000);
-            encoderDrive(DRIVE_SPEED, -3, -3, 3.0);
-            encoderDrive(DRIVE_SPEED, 4, 4, 3.0);
-        }
-        encoderDrive(DRIVE_SPEED, -10, -10, 3.0);  // 30
-
-        encoderDrive(CraigLauncherAuton.TURN_SPEED,   25, -25, 3.0);
-        encoderDrive(CraigLauncherAuton.DRIVE_SPEED, 60, 60, 5.0);
+        // Step through each leg of the path, see Routines.beaconsBlue for the legs
+        runCommand(Routines.beaconsBlue(robot, delay));
     }
 
 }
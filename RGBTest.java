@@ -33,6 +33,10 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package org.firstinspires.ftc.teamcode;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.File;
+import java.io.IOException;
 
 /**
  * This file illustrates the concept of driving a path based on encoder counts.
@@ -64,32 +68,105 @@ import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 @Autonomous(name="CraigLauncher: Beacon Detect Test", group="CraigLauncher")
 public class RGBTest extends CraigLauncherAuton {
 
+    // how long to read each of ambient, red and blue
+    public static final double CALIBRATION_SAMPLE_S = 1.0;
+
+    private TelemetryPublisher dashboard;
+
     @Override
     public void runOpMode() {
 
-        setupColor();
+        dashboard = new TelemetryPublisher(telemetry);
 
-        // Wait for the game to start (driver presses PLAY)
-        waitForStart();
+        try {
+            waitForInit(setupColor());
 
-        runRoutine(0);
+            // Wait for the game to start (driver presses PLAY)
+            waitForStart();
+
+            calibrate();
+            runRoutine(0);
+        } finally {
+            shutdown();
+        }
 
-        telemetry.addData("Path", "Complete");
-        telemetry.update();
+        LoopStats.save(getClass().getSimpleName(), loopStats);
+        dashboard.put("Path", "Complete");
+        dashboard.flush();
     }
 
+    /*
+     *  Reads ambient, a red beacon and a blue beacon (driver presses A for each), fits the
+     *  classification boundaries and saves them for the autons. Pressing B skips calibration
+     *  and keeps whatever was loaded.
+     */
+    private void calibrate() {
+        ColorCalibration.Readings ambient = sample("nothing in front of the sensor");
+        ColorCalibration.Readings red = ambient == null ? null : sample("a RED beacon half");
+        ColorCalibration.Readings blue = red == null ? null : sample("a BLUE beacon half");
+        if (blue == null) {
+            dashboard.put("Calibration", "skipped");
+            return;
+        }
+
+        try {
+            ColorCalibration calibration = ColorCalibration.fit(ambient, red, blue);
+            calibration.save(new File(ColorCalibration.FILE));
+            robot.setColorCalibration(calibration);
+            dashboard.put("Calibration", calibration.toString());
+        } catch (IllegalArgumentException e) {
+            dashboard.put("Calibration", "failed: " + e.getMessage());
+        } catch (IOException e) {
+            RobotLog.e("ColorCalibration: could not save " + ColorCalibration.FILE + ": " + e.getMessage());
+            dashboard.put("Calibration", "could not save, using it for this run only");
+        }
+        dashboard.flush();
+    }
+
+    /*
+     *  Waits for A (or B to skip, returns null) and then reads the sensor for a second, keeping
+     *  running sums over every reading rather than just the last few.
+     */
+    private ColorCalibration.Readings sample(String what) {
+        dashboard.put("Calibration", "Hold the sensor at " + what + ", press A (B skips)");
+        dashboard.flush();
+        while (opModeIsActive() && !gamepad1.a) {
+            if (gamepad1.b) {
+                return null;
+            }
+            idle();
+        }
+        while (opModeIsActive() && gamepad1.a) {
+            idle();
+        }
+
+        ColorCalibration.Readings readings = new ColorCalibration.Readings();
+        long start = robot.clock.nanoTime();
+        robot.snapshot.setReadColor(true);
+        while (opModeIsActive() && (robot.clock.nanoTime() - start) / 1e9 < CALIBRATION_SAMPLE_S) {
+            readHardware();
+            readings.add(robot.snapshot.getRed(), robot.snapshot.getGreen(), robot.snapshot.getBlue());
+            idle();
+        }
+        robot.snapshot.setReadColor(false);
+        dashboard.put("Read", readings.toString());
+        return opModeIsActive() ? readings : null;
+    }
+
+    @Override
     public void runRoutine(long delay) {
-        // Step through each leg of the path,
-        // Note: Reverse movement is obtained by setting a negative distance (not speed)
-        // (-,+) is turn left; (+,-) is turn right
-        // Max time values are commented for each robot operation (not including delay)
+        // Show what the (now calibrated) detector makes of whatever the sensor is pointed at
 
         sleep(delay);
 
+        BeaconDetectCommand detect = new BeaconDetectCommand(robot);
         while (opModeIsActive()) {
-            String color = beaconDetect();
-            telemetry.addData("Color", color);
-            telemetry.update();
+            runCommand(detect);
+            dashboard.put("Color", detect.getColor().name());
+            dashboard.put("Red", detect.getRedAverage(), 1);
+            dashboard.put("Blue", detect.getBlueAverage(), 1);
+            loopStats.report(dashboard);
+            dashboard.update();
         }
     }
 
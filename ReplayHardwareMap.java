@@ -0,0 +1,203 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hardware that plays back a {@link FlightLog} instead of moving: the drive and shooter encoders,
+ * busy flags, color sensor and battery read whatever the log says they read, and the clock reads the logged
+ * time. Whatever the code under test sends to the motors and servos is just kept, so it can be
+ * compared against what was sent on the robot.
+ *
+ * Call {@link #feed(FlightRecord)} with each record before running that cycle.
+ */
+public class ReplayHardwareMap implements DeviceMap {
+
+    private static final String[] DRIVE = { "leftFront", "rightFront", "leftBack", "rightBack" };
+
+    /** A motor whose encoder and busy flag come from the log. */
+    public static class ReplayMotor implements MotorDevice {
+        private Mode mode = Mode.RUN_WITHOUT_ENCODER;
+        private double power;
+        private int target;
+        private int position;
+        private boolean busy;
+
+        @Override
+        public void setReversed(boolean reversed) {
+            // the logged counts already went through the reversal
+        }
+
+        @Override
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        @Override
+        public void setPower(double power) {
+            this.power = power;
+        }
+
+        @Override
+        public double getPower() {
+            return power;
+        }
+
+        @Override
+        public void setTargetPosition(int position) {
+            target = position;
+        }
+
+        public int getTargetPosition() {
+            return target;
+        }
+
+        @Override
+        public int getCurrentPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean isBusy() {
+            return busy;
+        }
+    }
+
+    public static class ReplayServo implements ServoDevice {
+        private double position;
+
+        @Override
+        public void setPosition(double position) {
+            this.position = position;
+        }
+
+        @Override
+        public double getPosition() {
+            return position;
+        }
+    }
+
+    private final SimClock clock = new SimClock();
+    private final Map<String, ReplayMotor> motors = new HashMap<String, ReplayMotor>();
+    private final Map<String, ReplayServo> servos = new HashMap<String, ReplayServo>();
+    private final ReplayMotor[] drive = new ReplayMotor[FlightRecord.MOTORS];
+    private final ReplayMotor shooter;
+
+    private boolean started;
+    private long firstNanos;
+    private int red;
+    private int green;
+    private int blue;
+    private double voltage;
+
+    private final ColorDevice colorSensor = new ColorDevice() {
+        @Override
+        public int red() {
+            return red;
+        }
+
+        @Override
+        public int green() {
+            return green;
+        }
+
+        @Override
+        public int blue() {
+            return blue;
+        }
+
+        @Override
+        public int alpha() {
+            return 0;
+        }
+    };
+
+    private final VoltageDevice voltageSensor = new VoltageDevice() {
+        @Override
+        public double getVoltage() {
+            return voltage;
+        }
+    };
+
+    private final DigitalOutputDevice dim = new DigitalOutputDevice() {
+        @Override
+        public void setOutputMode(int channel) {
+        }
+
+        @Override
+        public void setState(int channel, boolean state) {
+        }
+    };
+
+    public ReplayHardwareMap() {
+        for (int i = 0; i < DRIVE.length; i++) {
+            drive[i] = motor(DRIVE[i]);
+        }
+        shooter = motor("shooter1");
+    }
+
+    /**
+     * Sets every sensor to what it read in this record and moves the clock to its time. The
+     * clock starts at 0 on the first record, like the sim's.
+     */
+    public void feed(FlightRecord record) {
+        if (!started) {
+            started = true;
+            firstNanos = record.timestampNanos;
+        }
+        clock.advance(record.timestampNanos - firstNanos - clock.nanoTime());
+        for (int i = 0; i < drive.length; i++) {
+            drive[i].position = record.position[i];
+            drive[i].busy = record.isBusy(i);
+        }
+        shooter.position = record.shooterPosition;
+        red = record.red;
+        green = record.green;
+        blue = record.blue;
+        voltage = record.voltage;
+    }
+
+    public SimClock getClock() {
+        return clock;
+    }
+
+    // anything the code asks for exists; there is no configuration to check names against
+    @Override
+    public ReplayMotor motor(String name) {
+        ReplayMotor motor = motors.get(name);
+        if (motor == null) {
+            motor = new ReplayMotor();
+            motors.put(name, motor);
+        }
+        return motor;
+    }
+
+    @Override
+    public ReplayServo servo(String name) {
+        ReplayServo servo = servos.get(name);
+        if (servo == null) {
+            servo = new ReplayServo();
+            servos.put(name, servo);
+        }
+        return servo;
+    }
+
+    @Override
+    public ColorDevice colorSensor(String name) {
+        return colorSensor;
+    }
+
+    @Override
+    public VoltageDevice voltageSensor(String name) {
+        return voltageSensor;
+    }
+
+    @Override
+    public DigitalOutputDevice deviceInterfaceModule(String name) {
+        return dim;
+    }
+}
@@ -0,0 +1,274 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Re-runs our code against logs from {@link FlightRecorder} on a plain JVM, as fast as the CPU
+ * allows:
+ *
+ *   java org.firstinspires.ftc.teamcode.ReplayRunner [-threads N] beaconsBlue|beaconsRed|...|teleop|classify log.frec...
+ *
+ * A routine name replays that auton routine (see {@link SimRunner#routine}) with the logged
+ * encoders, busy flags and color in place of the hardware and the logged time on the clock.
+ * teleop feeds the logged sticks and buttons through {@link CraigLauncherControls}. Either way
+ * the VoltageMonitor gets the logged resting voltage as is rather than filtering it again, so
+ * the voltage compensation and feedforward work from exactly what they did on the robot.
+ * classify runs the beacon classifier and a {@link ColorSampler} over the logged color readings.
+ *
+ * Each cycle's output (routine step and motor powers, or the colors decided) is compared with
+ * what the log says the robot did, and hashed. Nothing in a replay reads the wall clock or
+ * shares state with another replay, so the same code on the same log always gives the same hash,
+ * however many replays run at once; change a controller and diff the hash and mismatch counts.
+ *
+ * The code under test sees the logged sensors whatever it sends, so once a change makes it act
+ * differently the rest of the log no longer matches what it would have seen; the first mismatch
+ * is the interesting one. Camera readings aren't logged, so BeaconAim never has one in a replay.
+ */
+public class ReplayRunner {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public static class Result {
+        public String log;
+        public String mode;
+        public int records;
+        public int cycles;
+        public boolean finished;
+        public int mismatches;
+        public int firstMismatch = -1;
+        public double maxPowerError;
+        public long digest = FNV_OFFSET;
+        public String detail = "";
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s %s: %d/%d cycles%s, %d mismatched (first %d, max power error %.3f)%s, digest %016x",
+                    log, mode, cycles, records, finished ? " finished" : "", mismatches, firstMismatch,
+                    maxPowerError, detail, digest);
+        }
+    }
+
+    public static Result replay(String mode, File path) throws IOException {
+        FlightLog log = FlightLog.open(path);
+        if ("teleop".equals(mode)) {
+            return replayTeleop(log);
+        }
+        if ("classify".equals(mode)) {
+            return replayClassifier(log);
+        }
+        return replayAuton(log, mode);
+    }
+
+    /** Same loop as CraigLauncherAuton.runCommand(), one cycle per logged record. */
+    public static Result replayAuton(FlightLog log, String routineName) {
+        Result result = start(log, routineName);
+        ReplayHardwareMap devices = new ReplayHardwareMap();
+        CraigLauncherHardware robot = new CraigLauncherHardware(devices.getClock());
+        robot.initDrive(devices);
+        robot.initColor(devices);
+        robot.resetEncoders();
+        robot.runUsingEncoders();
+
+        Command command = SimRunner.routine(routineName, robot);
+        CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(command);
+
+        FlightRecord logged = new FlightRecord();
+        FlightRecord replayed = new FlightRecord();
+        for (int i = 0; i < log.size() && !scheduler.isIdle(); i++) {
+            log.read(i, logged);
+            devices.feed(logged);
+            robot.voltageMonitor.setRestingVoltage(logged.restingVoltage);
+            robot.update();
+            scheduler.run();
+            replayed.capture(robot, command instanceof SequentialCommand ? ((SequentialCommand) command).getIndex() : 0);
+
+            compare(result, i, logged, replayed);
+            result.digest = hash(result.digest, replayed.step);
+            result.digest = hashPowers(result.digest, replayed);
+            result.cycles++;
+        }
+        result.finished = scheduler.isIdle();
+        scheduler.cancelAll();
+        return result;
+    }
+
+    /** The teleop loop: logged input in, powers out. */
+    public static Result replayTeleop(FlightLog log) {
+        Result result = start(log, "teleop");
+        ReplayHardwareMap devices = new ReplayHardwareMap();
+        CraigLauncherControls controls = new CraigLauncherControls(devices, devices.getClock());
+        controls.init();
+
+        CraigLauncherControls.Input input = new CraigLauncherControls.Input();
+        FlightRecord logged = new FlightRecord();
+        FlightRecord replayed = new FlightRecord();
+        for (int i = 0; i < log.size(); i++) {
+            log.read(i, logged);
+            devices.feed(logged);
+            input.leftStickY = logged.leftStickY;
+            input.rightStickY = logged.rightStickY;
+            input.slidesDown = logged.isPressed(FlightRecord.BUTTON_SLIDES_DOWN);
+            input.slidesUp = logged.isPressed(FlightRecord.BUTTON_SLIDES_UP);
+            input.capBall = logged.isPressed(FlightRecord.BUTTON_CAP_BALL);
+            input.capBallRelease = logged.isPressed(FlightRecord.BUTTON_CAP_BALL_RELEASE);
+            input.shoot = logged.isPressed(FlightRecord.BUTTON_SHOOT);
+            input.slowDrive = logged.isPressed(FlightRecord.BUTTON_SLOW_DRIVE);
+
+            controls.getVoltageMonitor().setRestingVoltage(logged.restingVoltage);
+            controls.readSensors();
+            controls.apply(input);
+            controls.capture(replayed, input);
+
+            compare(result, i, logged, replayed);
+            result.digest = hashPowers(result.digest, replayed);
+            result.cycles++;
+        }
+        result.finished = true;
+        Odometry odometry = controls.getOdometry();
+        result.detail = String.format(Locale.US, ", odometry ended at x %.1f in, y %.1f in, heading %.1f deg",
+                odometry.getX(), odometry.getY(), Math.toDegrees(odometry.getHeading()));
+        return result;
+    }
+
+    /** Every logged color reading through the classifier, and through a sampler the way BeaconDetectCommand does. */
+    public static Result replayClassifier(FlightLog log) {
+        Result result = start(log, "classify");
+        BeaconClassifier classifier = new BeaconClassifier();
+        ColorSampler sampler = new ColorSampler(classifier);
+        int[] counts = new int[BeaconColor.values().length];
+
+        FlightRecord logged = new FlightRecord();
+        for (int i = 0; i < log.size(); i++) {
+            log.read(i, logged);
+            if (!logged.isColorRead()) {
+                continue;   // the sensor wasn't read this cycle
+            }
+            BeaconColor color = classifier.classify(logged.red, logged.green, logged.blue);
+            counts[color.ordinal()]++;
+            sampler.add(logged.timestampNanos, logged.red, logged.green, logged.blue);
+
+            result.digest = hash(result.digest, color.ordinal());
+            result.digest = hash(result.digest, sampler.getColor().ordinal());
+            result.digest = hash(result.digest, Double.doubleToLongBits(sampler.getScoreMean()));
+            result.cycles++;
+        }
+        result.finished = true;
+        result.detail = String.format(Locale.US, ", readings RED %d BLUE %d NONE %d",
+                counts[BeaconColor.RED.ordinal()], counts[BeaconColor.BLUE.ordinal()], counts[BeaconColor.NONE.ordinal()]);
+        return result;
+    }
+
+    /** Replays every log on up to threads threads; results come back in the same order as the logs. */
+    public static List<Result> replayAll(final String mode, List<File> logs, int threads)
+            throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, logs.size())));
+        try {
+            List<Future<Result>> futures = new ArrayList<Future<Result>>();
+            for (final File path : logs) {
+                futures.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() throws IOException {
+                        return replay(mode, path);
+                    }
+                }));
+            }
+            List<Result> results = new ArrayList<Result>();
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Result start(FlightLog log, String mode) {
+        Result result = new Result();
+        result.log = log.getPath().getName();
+        result.mode = mode;
+        result.records = log.size();
+        return result;
+    }
+
+    // powers are logged as floats, so that's the precision we compare at
+    private static void compare(Result result, int i, FlightRecord logged, FlightRecord replayed) {
+        boolean match = logged.step == replayed.step;
+        for (int m = 0; m < FlightRecord.POWERS; m++) {
+            double error = Math.abs(logged.power[m] - replayed.power[m]);
+            result.maxPowerError = Math.max(result.maxPowerError, error);
+            if (Float.floatToIntBits(logged.power[m]) != Float.floatToIntBits(replayed.power[m])) {
+                match = false;
+            }
+        }
+        if (!match) {
+            result.mismatches++;
+            if (result.firstMismatch < 0) {
+                result.firstMismatch = i;
+            }
+        }
+    }
+
+    private static long hashPowers(long digest, FlightRecord record) {
+        for (int m = 0; m < FlightRecord.POWERS; m++) {
+            digest = hash(digest, Float.floatToIntBits(record.power[m]));
+        }
+        return digest;
+    }
+
+    // FNV-1a, a byte at a time
+    private static long hash(long digest, long value) {
+        for (int b = 0; b < 8; b++) {
+            digest ^= (value >>> (8 * b)) & 0xff;
+            digest *= FNV_PRIME;
+        }
+        return digest;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int first = 0;
+        if (args.length > 1 && "-threads".equals(args[0])) {
+            threads = Integer.parseInt(args[1]);
+            first = 2;
+        }
+        if (args.length < first + 2) {
+            System.err.println("usage: ReplayRunner [-threads N] <routine|teleop|classify> log.frec...");
+            System.exit(1);
+        }
+        String mode = args[first];
+        List<File> logs = new ArrayList<File>();
+        for (int i = first + 1; i < args.length; i++) {
+            logs.add(new File(args[i]));
+        }
+
+        long start = System.nanoTime();
+        List<Result> results = replayAll(mode, logs, threads);
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        long cycles = 0;
+        for (Result result : results) {
+            System.out.println(result);
+            cycles += result.cycles;
+        }
+        System.out.println(String.format(Locale.US, "%d logs, %d cycles in %.3f s on %d threads",
+                results.size(), cycles, wallSeconds, threads));
+    }
+}
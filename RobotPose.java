@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Where the robot is on the field: x and y in inches from the field center, heading in
+ * radians (0 along the field x axis, counterclockwise positive), plus when and where it came from.
+ *
+ * Mutable and reused (see {@link PoseHandoff}), so copy the fields out if you need to keep them.
+ */
+public class RobotPose {
+
+    public double x;
+    public double y;
+    public double heading;
+
+    // clock time of the reading this came from
+    public long timestampNanos;
+
+    // e.g. the name of the Vuforia target we saw
+    public String source;
+
+    // counts up with every pose published; 0 means nothing has been seen yet
+    public long sequence;
+
+    public void set(double x, double y, double heading, long timestampNanos, String source) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.timestampNanos = timestampNanos;
+        this.source = source;
+    }
+
+    public void copyFrom(RobotPose other) {
+        set(other.x, other.y, other.heading, other.timestampNanos, other.source);
+        sequence = other.sequence;
+    }
+
+    public boolean isKnown() {
+        return sequence != 0;
+    }
+}
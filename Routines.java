@@ -0,0 +1,235 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Every auton routine, built as a tree of commands.
+ *
+ * These used to live in each opmode's runRoutine(). They only need a {@link CraigLauncherHardware},
+ * so the same routine runs on the robot (the opmode passes in its hardware and runs the command)
+ * and in the simulator.
+ *
+ * The beacon routines are always set down on the same spot, so building one also tells the
+ * robot where it starts (see {@link CraigLauncherHardware#setStartPose}). The others are set down
+ * wherever the alliance partner leaves room, so their pose stays unknown until vision finds it.
+ *
+ * Note: Reverse movement is obtained by setting a negative distance (not speed)
+ * (-,+) is turn left; (+,-) is turn right
+ */
+public class Routines {
+
+    private static final double DRIVE_SPEED = CraigLauncherHardware.DRIVE_SPEED;
+    private static final double TURN_SPEED = CraigLauncherHardware.TURN_SPEED;
+
+    // pause after each encoder move, as encoderDrive always did
+    private static final long DRIVE_PAUSE_MILLIS = 250;
+
+    // backing off a wrong color beacon, and driving back in past where it was pressed
+    private static final double BACK_OFF_INCHES = 3;
+    private static final double REPRESS_INCHES = 4;
+
+    // beacon routine start, field inches: back against the +x wall, 21 in toward the blue beacon
+    // wall from the middle, facing across the field. Red starts at the mirror image across the
+    // field diagonal, back against the -y wall facing the blue beacon wall.
+    public static final double BLUE_START_X = 62;
+    public static final double BLUE_START_Y = 21;
+    public static final double BLUE_START_HEADING = Math.PI;
+    public static final double RED_START_X = -21;
+    public static final double RED_START_Y = -62;
+    public static final double RED_START_HEADING = Math.PI / 2;
+
+    /* AutonCapBallPark: knocks the cap ball off and does a partial center park */
+    public static Command capBallPark(CraigLauncherHardware robot, long delay) {
+        return new SequentialCommand(
+                new WaitCommand(robot.clock, delay),
+                drive(robot, DRIVE_SPEED,  60, 60, 10.0));
+    }
+
+    /* AutonDefenseRamp: waits and plays defense on the other alliance's second beacon */
+    public static Command defenseRamp(CraigLauncherHardware robot, long delay) {
+        return new SequentialCommand(
+                new WaitCommand(robot.clock, delay),
+                drive(robot, DRIVE_SPEED,  110, 110, 10.0));
+    }
+
+    /* AutonDefenseCapBallBlue/Red: waits, knocks the cap ball off and plays defense */
+    public static Command defenseCapBallBlue(CraigLauncherHardware robot, long delay) {
+        double dist1 = 8 * Math.sqrt(2) * 12;
+        return new SequentialCommand(
+                new WaitCommand(robot.clock, delay),
+                drive(robot, DRIVE_SPEED,  dist1, dist1, 8.0),
+                drive(robot, TURN_SPEED, -15, 15, 2.0),
+                drive(robot, DRIVE_SPEED, 72, 72, 4.0));
+    }
+
+    public static Command defenseCapBallRed(CraigLauncherHardware robot, long delay) {
+        double dist1 = 8 * Math.sqrt(2) * 12;
+        return new SequentialCommand(
+                new WaitCommand(robot.clock, delay),
+                drive(robot, DRIVE_SPEED,  dist1, dist1, 8.0),
+                drive(robot, TURN_SPEED, 15, -15, 2.0),
+                drive(robot, DRIVE_SPEED, 72, 72, 4.0));
+    }
+
+    /* RGBAutonEncodersBlue: scores both beacons, knocks the cap ball off and parks */
+    public static Command beaconsBlue(CraigLauncherHardware robot, long delay) {
+        BeaconColor teamColor = BeaconColor.BLUE;
+        BeaconDetectCommand firstBeacon = new BeaconDetectCommand(robot);
+        BeaconDetectCommand secondBeacon = new BeaconDetectCommand(robot);
+        BeaconLockout firstLockout = new BeaconLockout(robot.clock);
+        BeaconLockout secondLockout = new BeaconLockout(robot.clock);
+        BeaconAim firstAim = new BeaconAim(robot, teamColor);
+        BeaconAim secondAim = new BeaconAim(robot, teamColor);
+        robot.setStartPose(BLUE_START_X, BLUE_START_Y, BLUE_START_HEADING);
+
+        return new SequentialCommand(
+                new WaitCommand(robot.clock, delay),
+                profiledDrive(robot,  25, 25, 5.0),  // 3
+                profiledDrive(robot,   7, -7, 3.0),  // 4
+                profiledDrive(robot,  23, 23, 3.0),
+                profiledDrive(robot,   10, -10, 3.0),  // 4
+                aim(firstAim, 25),
+                profiledDrive(robot, 25, 25, 5.0),  // 6
+                firstLockout.press(),
+                firstBeacon,  // 8
+                new ConditionalCommand(isWrongColor(firstBeacon, teamColor),
+                        repress(robot, firstLockout)),  // 13
+                profiledDrive(robot, -10, -10, 3.0),  // 17
+                unaim(firstAim, 25),
+
+                // ADD CHECK FOR TIME TO ENSURE WRONG BUTTON IS NOT PRESSED
+                profiledDrive(robot, -17, 17, 3.0),  // 18
+                profiledDrive(robot,  46,  46, 5.0),  // 21
+                profiledDrive(robot,   17, -17, 3.0),  // 22
+                aim(secondAim, 15),
+                profiledDrive(robot, 15, 15, 3.0),  // 23
+                secondLockout.press(),
+                secondBeacon,  // 24
+                new ConditionalCommand(isWrongColor(secondBeacon, teamColor),
+                        repress(robot, secondLockout)),  // 29
+                profiledDrive(robot, -10, -10, 3.0),  // 30
+                unaim(secondAim, 15),
+
+                profiledDrive(robot,   25, -25, 3.0),
+                profiledDrive(robot, 60, 60, 5.0));
+    }
+
+    /* RGBAutonEncodersRed: scores both beacons, knocks the cap ball off and parks */
+    public static Command beaconsRed(CraigLauncherHardware robot, long delay) {
+        BeaconColor teamColor = BeaconColor.RED;
+        BeaconDetectCommand firstBeacon = new BeaconDetectCommand(robot);
+        BeaconDetectCommand secondBeacon = new BeaconDetectCommand(robot);
+        BeaconLockout firstLockout = new BeaconLockout(robot.clock);
+        BeaconLockout secondLockout = new BeaconLockout(robot.clock);
+        BeaconAim firstAim = new BeaconAim(robot, teamColor);
+        BeaconAim secondAim = new BeaconAim(robot, teamColor);
+        robot.setStartPose(RED_START_X, RED_START_Y, RED_START_HEADING);
+
+        return new SequentialCommand(
+                new WaitCommand(robot.clock, delay),
+                profiledDrive(robot,  25, 25, 5.0),  // 3
+                profiledDrive(robot,   -6, 6, 3.0),  // 4
+                profiledDrive(robot,  23, 23, 3.0),
+                profiledDrive(robot,   -8, 8, 3.0),  // 4
+                aim(firstAim, 25),
+                profiledDrive(robot, 25, 25, 5.0),  // 6
+                firstLockout.press(),
+                firstBeacon,  // 8
+                new ConditionalCommand(isWrongColor(firstBeacon, teamColor),
+                        repress(robot, firstLockout)),  // 13
+                profiledDrive(robot, -10, -10, 3.0),  // 17
+                unaim(firstAim, 25),
+
+                // ADD CHECK FOR TIME TO ENSURE WRONG BUTTON IS NOT PRESSED
+                profiledDrive(robot, 15, -15, 3.0),  // 18
+                profiledDrive(robot,  50,  50, 5.0),  // 21
+                profiledDrive(robot,   -15, 15, 3.0),  // 22
+                aim(secondAim, 15),
+                profiledDrive(robot, 15, 15, 3.0),  // 23
+                secondLockout.press(),
+                secondBeacon,  // 24
+                new ConditionalCommand(isWrongColor(secondBeacon, teamColor),
+                        repress(robot, secondLockout)),  // 29
+                profiledDrive(robot, -10, -10, 3.0),  // 30
+                unaim(secondAim, 15),
+
+                profiledDrive(robot,   -24, 24, 3.0),
+                profiledDrive(robot, 65, 65, 5.0));
+    }
+
+    /*
+     *  A single leg of a routine: the encoder move, then the fixed pause. Not a SettleCommand:
+     *  the motors coast once RUN_TO_POSITION lets go, so the robot is still rolling when the
+     *  pause is up and there is nothing to detect earlier.
+     */
+    public static Command drive(CraigLauncherHardware robot, double speed,
+                                double leftInches, double rightInches, double timeoutS) {
+        return new SequentialCommand(
+                new DriveCommand(robot, speed, leftInches, rightInches, timeoutS),
+                new WaitCommand(robot.clock, DRIVE_PAUSE_MILLIS));
+    }
+
+    /*
+     *  A leg that follows a motion profile instead of a constant power, so it can run faster.
+     *  Sides going opposite ways are a turn and get the gentler turn limits.
+     */
+    public static Command profiledDrive(CraigLauncherHardware robot,
+                                        double leftInches, double rightInches, double timeoutS) {
+        boolean turn = leftInches * rightInches < 0;
+        ProfiledDriveCommand move = new ProfiledDriveCommand(robot, leftInches, rightInches,
+                turn ? CraigLauncherHardware.PROFILE_TURN_VELOCITY : CraigLauncherHardware.PROFILE_DRIVE_VELOCITY,
+                turn ? CraigLauncherHardware.PROFILE_TURN_ACCEL : CraigLauncherHardware.PROFILE_DRIVE_ACCEL,
+                MotionProfile.Shape.S_CURVE, timeoutS);
+        return new SequentialCommand(move, new SettleCommand(robot, move));
+    }
+
+    /*
+     *  Backs off a wrong color beacon while it is locked out and presses it again. The drive back
+     *  in starts as early as the time it takes to cover the back off, so the button goes down as
+     *  the lockout ends; the wheels lag the profile a little, so never before.
+     */
+    public static Command repress(CraigLauncherHardware robot, BeaconLockout lockout) {
+        MotionProfile press = ProfiledDriveCommand.plan(REPRESS_INCHES,
+                CraigLauncherHardware.PROFILE_DRIVE_VELOCITY, CraigLauncherHardware.PROFILE_DRIVE_ACCEL,
+                MotionProfile.Shape.S_CURVE);
+        long leadMillis = (long) (press.timeAt(BACK_OFF_INCHES) * 1000);
+        return new SequentialCommand(
+                profiledDrive(robot, -BACK_OFF_INCHES, -BACK_OFF_INCHES, 3.0),
+                lockout.waitForExpiry(leadMillis),
+                profiledDrive(robot, REPRESS_INCHES, REPRESS_INCHES, 3.0));
+    }
+
+    /*
+     *  Turns a little toward the button the camera says is ours, if it saw the beacon,
+     *  so driving approachInches in ends on that button.
+     */
+    public static Command aim(BeaconAim aim, double approachInches) {
+        CraigLauncherHardware robot = aim.getRobot();
+        double turn = BeaconAim.turnInches(approachInches);
+        return new SequentialCommand(
+                aim.decide(),
+                new ConditionalCommand(aim.aimLeft(), profiledDrive(robot, -turn, turn, 2.0)),
+                new ConditionalCommand(aim.aimRight(), profiledDrive(robot, turn, -turn, 2.0)));
+    }
+
+    /* Undoes aim() once we've backed off the beacon. */
+    public static Command unaim(BeaconAim aim, double approachInches) {
+        CraigLauncherHardware robot = aim.getRobot();
+        double turn = BeaconAim.turnInches(approachInches);
+        return new SequentialCommand(
+                new ConditionalCommand(aim.aimLeft(), profiledDrive(robot, turn, -turn, 2.0)),
+                new ConditionalCommand(aim.aimRight(), profiledDrive(robot, -turn, turn, 2.0)));
+    }
+
+    /*
+     *  True once the beacon has been read and it is the other alliance's color.
+     */
+    public static ConditionalCommand.Condition isWrongColor(final BeaconDetectCommand detect,
+                                                            final BeaconColor teamColor) {
+        return new ConditionalCommand.Condition() {
+            @Override
+            public boolean test() {
+                BeaconColor color = detect.getColor();
+                return color != teamColor && color != BeaconColor.NONE;
+            }
+        };
+    }
+}
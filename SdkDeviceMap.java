@@ -0,0 +1,180 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DeviceInterfaceModule;
+import com.qualcomm.robotcore.hardware.DigitalChannelController;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+/**
+ * {@link DeviceMap} on top of the opmode's hardwareMap. This is the only place that binds the
+ * robot code to the FTC SDK hardware classes.
+ */
+public class SdkDeviceMap implements DeviceMap {
+
+    private final HardwareMap hardwareMap;
+
+    public SdkDeviceMap(HardwareMap hardwareMap) {
+        this.hardwareMap = hardwareMap;
+    }
+
+    @Override
+    public MotorDevice motor(String name) {
+        return new Motor(hardwareMap.dcMotor.get(name));
+    }
+
+    @Override
+    public ServoDevice servo(String name) {
+        return new ServoAdapter(hardwareMap.servo.get(name));
+    }
+
+    @Override
+    public ColorDevice colorSensor(String name) {
+        return new Color(hardwareMap.colorSensor.get(name));
+    }
+
+    @Override
+    public VoltageDevice voltageSensor(String name) {
+        return new Voltage(hardwareMap.voltageSensor.get(name));
+    }
+
+    @Override
+    public DigitalOutputDevice deviceInterfaceModule(String name) {
+        return new Dim(hardwareMap.deviceInterfaceModule.get(name));
+    }
+
+    static class Motor implements MotorDevice {
+        private final DcMotor motor;
+
+        Motor(DcMotor motor) {
+            this.motor = motor;
+        }
+
+        @Override
+        public void setReversed(boolean reversed) {
+            motor.setDirection(reversed ? DcMotor.Direction.REVERSE : DcMotor.Direction.FORWARD);
+        }
+
+        @Override
+        public void setMode(Mode mode) {
+            switch (mode) {
+                case RUN_WITHOUT_ENCODER:
+                    motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+                    break;
+                case RUN_USING_ENCODER:
+                    motor.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+                    break;
+                case RUN_TO_POSITION:
+                    motor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+                    break;
+                case STOP_AND_RESET_ENCODER:
+                    motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+                    break;
+            }
+        }
+
+        @Override
+        public void setPower(double power) {
+            motor.setPower(power);
+        }
+
+        @Override
+        public double getPower() {
+            return motor.getPower();
+        }
+
+        @Override
+        public void setTargetPosition(int position) {
+            motor.setTargetPosition(position);
+        }
+
+        @Override
+        public int getCurrentPosition() {
+            return motor.getCurrentPosition();
+        }
+
+        @Override
+        public boolean isBusy() {
+            return motor.isBusy();
+        }
+    }
+
+    static class ServoAdapter implements ServoDevice {
+        private final Servo servo;
+
+        ServoAdapter(Servo servo) {
+            this.servo = servo;
+        }
+
+        @Override
+        public void setPosition(double position) {
+            servo.setPosition(position);
+        }
+
+        @Override
+        public double getPosition() {
+            return servo.getPosition();
+        }
+    }
+
+    static class Color implements ColorDevice {
+        private final ColorSensor sensor;
+
+        Color(ColorSensor sensor) {
+            this.sensor = sensor;
+        }
+
+        @Override
+        public int red() {
+            return sensor.red();
+        }
+
+        @Override
+        public int green() {
+            return sensor.green();
+        }
+
+        @Override
+        public int blue() {
+            return sensor.blue();
+        }
+
+        @Override
+        public int alpha() {
+            return sensor.alpha();
+        }
+    }
+
+    static class Voltage implements VoltageDevice {
+        private final VoltageSensor sensor;
+
+        Voltage(VoltageSensor sensor) {
+            this.sensor = sensor;
+        }
+
+        @Override
+        public double getVoltage() {
+            return sensor.getVoltage();
+        }
+    }
+
+    static class Dim implements DigitalOutputDevice {
+        private final DeviceInterfaceModule dim;
+
+        Dim(DeviceInterfaceModule dim) {
+            this.dim = dim;
+        }
+
+        @Override
+        public void setOutputMode(int channel) {
+            dim.setDigitalChannelMode(channel, DigitalChannelController.Mode.OUTPUT);
+        }
+
+        @Override
+        public void setState(int channel, boolean state) {
+            dim.setDigitalChannelState(channel, state);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Runs a list of commands one after another, the same way the old runRoutine() methods
+ * called encoderDrive() one line at a time.
+ */
+public class SequentialCommand implements Command {
+
+    private final Command[] commands;
+    private int index;
+    private boolean currentStarted;
+
+    public SequentialCommand(Command... commands) {
+        this.commands = commands;
+    }
+
+    @Override
+    public void start() {
+        index = 0;
+        currentStarted = false;
+    }
+
+    @Override
+    public void execute() {
+        if (index >= commands.length) {
+            return;
+        }
+
+        Command current = commands[index];
+        if (!currentStarted) {
+            current.start();
+            currentStarted = true;
+        }
+
+        current.execute();
+        if (current.isFinished()) {
+            current.end(false);
+            index++;
+            currentStarted = false;
+        }
+    }
+
+    /** Which command is running (commands.length once all are done), for logging. */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return index >= commands.length;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted && currentStarted && index < commands.length) {
+            commands[index].end(true);
+        }
+    }
+}
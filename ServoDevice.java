@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * The parts of a Servo the robot code uses.
+ */
+public interface ServoDevice {
+
+    void setPosition(double position);
+
+    double getPosition();
+}
@@ -0,0 +1,110 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Waits after a move until the robot has actually stopped, instead of a fixed pause.
+ *
+ * Settled means the move's position error and the wheel speed have both been under their
+ * thresholds for a few snapshots in a row. If that never happens we give up after the cap
+ * (the old fixed pause), so a stuck or pushed robot can't hold up the routine. Each settle
+ * time goes into the robot's {@link SettleLog}.
+ *
+ * Nothing holds the target while we wait: the move has already cut the motors, and the robot
+ * coasts to rest. That only works for {@link ProfiledDriveCommand}, which finishes at the end of
+ * its profile, already within tolerance and nearly stopped, so it comes to rest well inside
+ * MAX_ERROR_INCHES. A {@link DriveCommand} lets go of RUN_TO_POSITION as soon as busy clears and
+ * the robot coasts about an inch past the target for longer than the cap, so this could never
+ * pass on those legs; they keep the plain pause (see Routines.drive()).
+ */
+public class SettleCommand implements Command {
+
+    public static final double MAX_ERROR_INCHES = 0.5;
+    public static final double MAX_SPEED_INCHES_PER_SECOND = 1.0;
+    public static final int SAMPLES = 3;
+    public static final long CAP_MILLIS = 250;
+
+    private final CraigLauncherHardware robot;
+    private final DriveMove move;
+    private final double maxErrorInches;
+    private final double maxSpeed;
+    private final int samples;
+    private final long capMillis;
+
+    private long startNanos;
+    private long lastCycle;
+    private long lastNanos;
+    private double lastLeft;
+    private double lastRight;
+    private int quietSamples;
+
+    public SettleCommand(CraigLauncherHardware robot, DriveMove move) {
+        this(robot, move, MAX_ERROR_INCHES, MAX_SPEED_INCHES_PER_SECOND, SAMPLES, CAP_MILLIS);
+    }
+
+    public SettleCommand(CraigLauncherHardware robot, DriveMove move, double maxErrorInches,
+                         double maxSpeedInchesPerSecond, int samples, long capMillis) {
+        this.robot = robot;
+        this.move = move;
+        this.maxErrorInches = maxErrorInches;
+        this.maxSpeed = maxSpeedInchesPerSecond;
+        this.samples = samples;
+        this.capMillis = capMillis;
+    }
+
+    @Override
+    public void start() {
+        startNanos = robot.clock.nanoTime();
+        quietSamples = 0;
+        remember();
+    }
+
+    @Override
+    public void execute() {
+        HardwareSnapshot snapshot = robot.snapshot;
+        if (snapshot.getCycle() == lastCycle) {
+            return;     // nothing new to look at yet
+        }
+
+        double dt = (snapshot.getTimestampNanos() - lastNanos) / 1e9;
+        double left = leftCounts();
+        double right = rightCounts();
+        double speed = DriveKinematics.countsToInches(
+                Math.max(Math.abs(left - lastLeft), Math.abs(right - lastRight))) / dt;
+
+        if (speed <= maxSpeed && Math.abs(move.getErrorInches()) <= maxErrorInches) {
+            quietSamples++;
+        } else {
+            quietSamples = 0;
+        }
+        remember();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return quietSamples >= samples || robot.clock.nanoTime() - startNanos >= capMillis * 1000000L;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (!interrupted) {
+            robot.settleLog.record(robot.clock.nanoTime() - startNanos, quietSamples < samples);
+        }
+    }
+
+    private void remember() {
+        HardwareSnapshot snapshot = robot.snapshot;
+        lastCycle = snapshot.getCycle();
+        lastNanos = snapshot.getTimestampNanos();
+        lastLeft = leftCounts();
+        lastRight = rightCounts();
+    }
+
+    private double leftCounts() {
+        return (robot.snapshot.getPosition(HardwareSnapshot.LEFT_FRONT) +
+                robot.snapshot.getPosition(HardwareSnapshot.LEFT_BACK)) / 2.0;
+    }
+
+    private double rightCounts() {
+        return (robot.snapshot.getPosition(HardwareSnapshot.RIGHT_FRONT) +
+                robot.snapshot.getPosition(HardwareSnapshot.RIGHT_BACK)) / 2.0;
+    }
+}
@@ -0,0 +1,71 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.Locale;
+
+/**
+ * How long each move took to settle after it finished, in the order the moves ran.
+ *
+ * Fixed size so recording during a routine never allocates; moves past {@value #CAPACITY}
+ * still count towards the totals but their individual times are dropped.
+ */
+public class SettleLog {
+
+    public static final int CAPACITY = 64;
+
+    private final long[] settleNanos = new long[CAPACITY];
+    private final boolean[] capped = new boolean[CAPACITY];
+
+    private int count;
+    private int cappedCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    public void record(long nanos, boolean hitCap) {
+        if (count < CAPACITY) {
+            settleNanos[count] = nanos;
+            capped[count] = hitCap;
+        }
+        count++;
+        if (hitCap) {
+            cappedCount++;
+        }
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+        cappedCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    /** Number of moves recorded, including any past CAPACITY. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Moves we kept the individual times for. */
+    public int getStoredCount() {
+        return Math.min(count, CAPACITY);
+    }
+
+    public double getSettleMs(int move) {
+        return settleNanos[move] / 1e6;
+    }
+
+    public boolean wasCapped(int move) {
+        return capped[move];
+    }
+
+    public double getTotalMs() {
+        return totalNanos / 1e6;
+    }
+
+    public String summary() {
+        return String.format(Locale.US, "settle: %d moves, total %.0f ms, max %.0f ms, %d hit the cap",
+                count, getTotalMs(), maxNanos / 1e6, cappedCount);
+    }
+}
@@ -0,0 +1,36 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Sets the flywheel's target speed (0 to stop) and finishes right away, so it can be dropped into
+ * a {@link SequentialCommand} or run alongside a drive move in a {@link ParallelCommand}. The
+ * {@link FlywheelController} holds the speed from then on; use a {@link FlywheelReadyCommand} to
+ * wait until it's there before shooting.
+ */
+public class ShooterCommand implements Command {
+
+    private final CraigLauncherHardware robot;
+    private final double rpm;
+
+    public ShooterCommand(CraigLauncherHardware robot, double rpm) {
+        this.robot = robot;
+        this.rpm = rpm;
+    }
+
+    @Override
+    public void start() {
+        robot.flywheel.setTargetRpm(rpm);
+    }
+
+    @Override
+    public void execute() {
+    }
+
+    @Override
+    public boolean isFinished() {
+        return true;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+    }
+}
@@ -0,0 +1,23 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * A {@link Clock} that only moves when the simulator steps it, so a 30 second routine can
+ * finish in however long the CPU takes to run it.
+ */
+public class SimClock implements Clock {
+
+    private long nanos;
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    public void advance(long deltaNanos) {
+        nanos += deltaNanos;
+    }
+
+    public double seconds() {
+        return nanos / 1e9;
+    }
+}
@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Simulated color sensor. The simulator (or a test) sets what it is looking at.
+ */
+public class SimColorSensor implements ColorDevice {
+
+    private int red;
+    private int green;
+    private int blue;
+
+    public void setReading(int red, int green, int blue) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+    }
+
+    /** Shorthand for pointing the sensor at a lit beacon half: "red", "blue" or anything else for nothing. */
+    public void setBeacon(String color) {
+        if ("red".equals(color)) {
+            setReading(8, 1, 2);
+        } else if ("blue".equals(color)) {
+            setReading(1, 2, 8);
+        } else {
+            setReading(1, 1, 1);
+        }
+    }
+
+    @Override
+    public int red() {
+        return red;
+    }
+
+    @Override
+    public int green() {
+        return green;
+    }
+
+    @Override
+    public int blue() {
+        return blue;
+    }
+
+    @Override
+    public int alpha() {
+        return red + green + blue;
+    }
+}
@@ -0,0 +1,28 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Simulated device interface module. Only the digital outputs are modelled, since that is all
+ * the robot uses (the color sensor LED).
+ */
+public class SimDeviceInterfaceModule implements DigitalOutputDevice {
+
+    private final boolean[] output = new boolean[8];
+    private final boolean[] state = new boolean[8];
+
+    @Override
+    public void setOutputMode(int channel) {
+        output[channel] = true;
+    }
+
+    @Override
+    public void setState(int channel, boolean state) {
+        if (!output[channel]) {
+            throw new IllegalStateException("digital channel " + channel + " is not an output");
+        }
+        this.state[channel] = state;
+    }
+
+    public boolean getState(int channel) {
+        return state[channel];
+    }
+}
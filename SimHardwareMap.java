@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Simulated robot behind the same device names as the robot configuration on the phone, so
+ * {@link CraigLauncherHardware#initDrive} and {@link CraigLauncherHardware#initColor} work on it
+ * unchanged. Call {@link #step(long)} once per control cycle to move time and the robot forward.
+ */
+public class SimHardwareMap implements DeviceMap {
+
+    public static final double RESTING_VOLTAGE = 13.2;
+
+    private final SimClock clock = new SimClock();
+
+    private final Map<String, SimMotor> motors = new HashMap<String, SimMotor>();
+    private final Map<String, SimServo> servos = new HashMap<String, SimServo>();
+
+    private final SimColorSensor colorSensor = new SimColorSensor();
+    private final SimVoltageSensor voltageSensor = new SimVoltageSensor(RESTING_VOLTAGE);
+    private final SimDeviceInterfaceModule dim = new SimDeviceInterfaceModule();
+
+    private final TankDriveSim drive;
+
+    public SimHardwareMap() {
+        motors.put("leftFront", new SimMotor(false));
+        motors.put("leftBack", new SimMotor(false));
+        motors.put("rightFront", new SimMotor(true));
+        motors.put("rightBack", new SimMotor(true));
+        motors.put("shooter1", new SimMotor(false));
+        motors.put("shooter2", new SimMotor(true));
+        motors.put("slides1", new SimMotor(false));
+        motors.put("slides2", new SimMotor(true));
+
+        servos.put("capBallLeft", new SimServo());
+        servos.put("capBallRight", new SimServo());
+        servos.put("rotate", new SimServo());
+
+        drive = new TankDriveSim(motors.get("leftFront"), motors.get("leftBack"),
+                motors.get("rightFront"), motors.get("rightBack"));
+    }
+
+    /** Moves the simulation forward by one control cycle. */
+    public void step(long deltaNanos) {
+        double dt = deltaNanos / 1e9;
+        double voltage = voltageSensor.getVoltage();
+
+        double load = 0;
+        for (SimMotor motor : motors.values()) {
+            motor.step(dt, voltage);
+            load += motor.getLoad();
+        }
+        voltageSensor.update(load);
+        drive.update();
+
+        clock.advance(deltaNanos);
+    }
+
+    public SimClock getClock() {
+        return clock;
+    }
+
+    public TankDriveSim getDrive() {
+        return drive;
+    }
+
+    public SimColorSensor getColorSensor() {
+        return colorSensor;
+    }
+
+    public SimVoltageSensor getVoltageSensor() {
+        return voltageSensor;
+    }
+
+    public SimDeviceInterfaceModule getDeviceInterfaceModule() {
+        return dim;
+    }
+
+    @Override
+    public SimMotor motor(String name) {
+        return lookup(motors, name);
+    }
+
+    @Override
+    public SimServo servo(String name) {
+        return lookup(servos, name);
+    }
+
+    @Override
+    public SimColorSensor colorSensor(String name) {
+        check("sensor_color", name);
+        return colorSensor;
+    }
+
+    @Override
+    public SimVoltageSensor voltageSensor(String name) {
+        check("right", name);
+        return voltageSensor;
+    }
+
+    @Override
+    public SimDeviceInterfaceModule deviceInterfaceModule(String name) {
+        check("dim", name);
+        return dim;
+    }
+
+    // same exception the SDK's hardwareMap throws for a name that isn't in the configuration
+    private static <T> T lookup(Map<String, T> devices, String name) {
+        T device = devices.get(name);
+        if (device == null) {
+            throw new IllegalArgumentException("Unable to find a hardware device with the name \"" + name + "\"");
+        }
+        return device;
+    }
+
+    private static void check(String expected, String name) {
+        if (!expected.equals(name)) {
+            throw new IllegalArgumentException("Unable to find a hardware device with the name \"" + name + "\"");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Simulated drive or mechanism motor.
+ *
+ * Models a first order speed response and the run modes the way the Modern Robotics controller
+ * behaves: RUN_USING_ENCODER holds speed regardless of battery voltage, RUN_WITHOUT_ENCODER scales
+ * with voltage, and RUN_TO_POSITION drives toward the target, slowing down near it, and stays
+ * busy until it is within {@link #POSITION_TOLERANCE} counts.
+ */
+public class SimMotor implements MotorDevice {
+
+    public static final double MAX_COUNTS_PER_SECOND = 2500;     // AndyMark 40 under load at 12 V
+    public static final double TIME_CONSTANT_S = 0.12;
+    public static final double NOMINAL_VOLTAGE = 12.0;
+    public static final int POSITION_TOLERANCE = 10;
+    public static final double SLOWDOWN_COUNTS = 150;            // P gain of RUN_TO_POSITION
+
+    // true for motors mounted facing the other way (the right side of the drive)
+    private final boolean mirrored;
+
+    private boolean reversed = false;
+    private Mode mode = Mode.RUN_WITHOUT_ENCODER;
+    private double power;
+    private int target;
+
+    private double position;        // counts, in the motor's own direction
+    private double velocity;        // counts per second
+    private double resetOffset;
+    private double applied;
+
+    public SimMotor(boolean mirrored) {
+        this.mirrored = mirrored;
+    }
+
+    /** Advances the motor by dt seconds at the given battery voltage. */
+    public void step(double dt, double voltage) {
+        double maxApplied = Math.min(1.0, voltage / NOMINAL_VOLTAGE);
+
+        switch (mode) {
+            case RUN_TO_POSITION:
+                double error = target - getCurrentPosition();
+                applied = clip(error / SLOWDOWN_COUNTS, -1, 1) * Math.abs(power);
+                applied = clip(applied, -maxApplied, maxApplied);
+                break;
+            case RUN_USING_ENCODER:
+                applied = clip(power, -maxApplied, maxApplied);
+                break;
+            case RUN_WITHOUT_ENCODER:
+                applied = clip(power, -1, 1) * voltage / NOMINAL_VOLTAGE;
+                break;
+            default:
+                applied = 0;
+                break;
+        }
+
+        double targetVelocity = applied * MAX_COUNTS_PER_SECOND;
+        velocity += (targetVelocity - velocity) * Math.min(1.0, dt / TIME_CONSTANT_S);
+        position += velocity * dt;
+    }
+
+    /** Counts moved in the direction that drives the robot forward. */
+    public double getForwardCounts() {
+        double sign = (reversed ? -1 : 1) * (mirrored ? -1 : 1);
+        return position * sign;
+    }
+
+    /** How hard the motor is working right now, 0 to 1, for the battery sag model. */
+    public double getLoad() {
+        return Math.abs(applied);
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    @Override
+    public void setReversed(boolean reversed) {
+        this.reversed = reversed;
+    }
+
+    @Override
+    public void setMode(Mode mode) {
+        if (mode == Mode.STOP_AND_RESET_ENCODER) {
+            resetOffset = position;
+            power = 0;
+        }
+        this.mode = mode;
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.power = power;
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        target = position;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return (int) Math.round(position - resetOffset);
+    }
+
+    @Override
+    public boolean isBusy() {
+        return mode == Mode.RUN_TO_POSITION &&
+                Math.abs(target - getCurrentPosition()) > POSITION_TOLERANCE;
+    }
+
+    private static double clip(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
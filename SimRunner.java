@@ -0,0 +1,171 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Runs an auton routine against the simulated robot on a plain JVM, as fast as the CPU allows.
+ *
+ *   java org.firstinspires.ftc.teamcode.SimRunner beaconsBlue [beaconColor] [vision]
+ *
+ * The routine names are the methods in {@link Routines}. beaconColor ("red"/"blue"/"none",
+ * default "none") is what the color sensor sees whenever a beacon is read, so the re-press
+ * branch can be exercised. With "vision", noisy pose fixes are fed to the pose estimator
+ * (see {@link SimVision}). Prints how long the routine took in match time, where it ended up
+ * and where the robot thinks it ended up.
+ */
+public class SimRunner {
+
+    public static final long CYCLE_NANOS = 10000000L;          // 100 Hz control loop
+    public static final double MATCH_SECONDS = 30.0;
+
+    public static class Result {
+        public double matchSeconds;
+        public long cycles;
+        public double x;
+        public double y;
+        public double heading;
+        public boolean finished;
+        public String settle;
+        public double odometryX;
+        public double odometryY;
+        public double odometryHeading;
+        public RobotPose estimate = new RobotPose();
+        public double estimateSigma;
+        public long visionFixes;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s in %.2f s (%d cycles), ended at x %.1f in, y %.1f in, heading %.1f deg",
+                    finished ? "finished" : "timed out", matchSeconds, cycles, x, y, Math.toDegrees(heading));
+        }
+    }
+
+    public static Command routine(String name, CraigLauncherHardware robot) {
+        switch (name) {
+            case "capBallPark":
+                return Routines.capBallPark(robot, 0);
+            case "defenseRamp":
+                return Routines.defenseRamp(robot, 0);
+            case "defenseCapBallBlue":
+                return Routines.defenseCapBallBlue(robot, 0);
+            case "defenseCapBallRed":
+                return Routines.defenseCapBallRed(robot, 0);
+            case "beaconsBlue":
+                return Routines.beaconsBlue(robot, 0);
+            case "beaconsRed":
+                return Routines.beaconsRed(robot, 0);
+            default:
+                throw new IllegalArgumentException("unknown routine " + name);
+        }
+    }
+
+    /** Sets up a fresh simulated robot the way the auton opmodes do and runs the routine on it. */
+    public static Result run(String routineName, String beaconColor) {
+        return run(routineName, beaconColor, false);
+    }
+
+    public static Result run(String routineName, String beaconColor, boolean vision) {
+        return run(routineName, beaconColor, vision, null);
+    }
+
+    /** Same, logging every cycle to recorder (if not null) the way the autons do. */
+    public static Result run(String routineName, String beaconColor, boolean vision, FlightRecorder recorder) {
+        SimHardwareMap sim = new SimHardwareMap();
+        sim.getColorSensor().setBeacon(beaconColor);
+
+        CraigLauncherHardware robot = new CraigLauncherHardware(sim.getClock());
+        robot.initDrive(sim);
+        robot.initColor(sim);
+        robot.resetEncoders();
+        robot.runUsingEncoders();
+
+        // the simulated robot starts wherever the routine says it is set down
+        Command command = routine(routineName, robot);
+        sim.getDrive().setPose(robot.odometry.getX(), robot.odometry.getY(), robot.odometry.getHeading());
+
+        return run(sim, robot, command, vision ? new SimVision(sim, robot.visionPoses) : null, recorder);
+    }
+
+    public static Result run(SimHardwareMap sim, CraigLauncherHardware robot, Command command, SimVision vision) {
+        return run(sim, robot, command, vision, null);
+    }
+
+    /** Same loop as CraigLauncherAuton.runCommand(), with the simulator stepped once per cycle. */
+    public static Result run(SimHardwareMap sim, CraigLauncherHardware robot, Command command, SimVision vision,
+                             FlightRecorder recorder) {
+        FlightRecord record = new FlightRecord();
+        CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(command);
+
+        long limit = (long) (MATCH_SECONDS * 1e9);
+        Result result = new Result();
+        while (!scheduler.isIdle() && sim.getClock().nanoTime() < limit) {
+            if (vision != null) {
+                vision.step();
+            }
+            // the monitor samples on its own thread on the robot; here it steps with the sim
+            robot.voltageMonitor.sample();
+            robot.update();
+            scheduler.run();
+            if (recorder != null) {
+                // same as CraigLauncherAuton.recordCycle(), flushed in step instead of on a thread
+                record.capture(robot, command instanceof SequentialCommand ? ((SequentialCommand) command).getIndex() : 0);
+                recorder.append(record);
+                recorder.flush();
+            }
+            sim.step(CYCLE_NANOS);
+            result.cycles++;
+        }
+        result.finished = scheduler.isIdle();
+        scheduler.cancelAll();
+
+        result.matchSeconds = sim.getClock().seconds();
+        result.x = sim.getDrive().getX();
+        result.y = sim.getDrive().getY();
+        result.heading = sim.getDrive().getHeading();
+        result.settle = robot.settleLog.summary();
+        result.odometryX = robot.odometry.getX();
+        result.odometryY = robot.odometry.getY();
+        result.odometryHeading = robot.odometry.getHeading();
+        result.estimate.copyFrom(robot.poseEstimator.getPose());
+        result.estimateSigma = robot.poseEstimator.getPositionSigma();
+        result.visionFixes = robot.poseEstimator.getVisionFixes();
+        return result;
+    }
+
+    /** SimRunner [routine] [beacon color] [vision] [log.frec] */
+    public static void main(String[] args) throws IOException {
+        String routine = args.length > 0 ? args[0] : "beaconsBlue";
+        String beacon = args.length > 1 ? args[1] : "none";
+        boolean vision = false;
+        FlightRecorder recorder = null;
+        for (int i = 2; i < args.length; i++) {
+            if ("vision".equals(args[i])) {
+                vision = true;
+            } else if (args[i].endsWith(".frec")) {
+                recorder = new FlightRecorder(new File(args[i]), FlightRecorder.DEFAULT_MAX_RECORDS);
+            }
+        }
+
+        long start = System.nanoTime();
+        Result result = run(routine, beacon, vision, recorder);
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+        if (recorder != null) {
+            recorder.stop();
+            System.out.println(String.format(Locale.US, "logged %d cycles (%d dropped)",
+                    recorder.getWritten(), recorder.getDropped()));
+        }
+
+        System.out.println(routine + ": " + result);
+        System.out.println(result.settle);
+        System.out.println(String.format(Locale.US, "odometry x %.1f in, y %.1f in, heading %.1f deg",
+                result.odometryX, result.odometryY, Math.toDegrees(result.odometryHeading)));
+        System.out.println(String.format(Locale.US, "estimated x %.1f in, y %.1f in, heading %.1f deg (+-%.1f in, %d vision fixes)",
+                result.estimate.x, result.estimate.y, Math.toDegrees(result.estimate.heading),
+                result.estimateSigma, result.visionFixes));
+        System.out.println(String.format(Locale.US, "wall time %.3f s (%.0fx real time)",
+                wallSeconds, result.matchSeconds / wallSeconds));
+    }
+}
@@ -0,0 +1,19 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Simulated servo; it just remembers where it was told to go.
+ */
+public class SimServo implements ServoDevice {
+
+    private double position;
+
+    @Override
+    public void setPosition(double position) {
+        this.position = Math.max(0, Math.min(1, position));
+    }
+
+    @Override
+    public double getPosition() {
+        return position;
+    }
+}
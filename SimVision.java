@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.Random;
+
+/**
+ * Stands in for VisionWorker in the simulator: every so often publishes the robot's true pose,
+ * plus noise, the way a Vuforia fix would arrive.
+ */
+public class SimVision {
+
+    public static final long INTERVAL_NANOS = 500000000L;
+    public static final double SIGMA_INCHES = 1.5;
+    public static final double SIGMA_RADIANS = Math.toRadians(2);
+
+    private final SimHardwareMap sim;
+    private final PoseHandoff handoff;
+    private final Random random = new Random(310);
+    private long lastNanos = -INTERVAL_NANOS;
+
+    public SimVision(SimHardwareMap sim, PoseHandoff handoff) {
+        this.sim = sim;
+        this.handoff = handoff;
+    }
+
+    /** Call once per cycle; publishes a fix when one is due. */
+    public void step() {
+        long now = sim.getClock().nanoTime();
+        if (now - lastNanos < INTERVAL_NANOS) {
+            return;
+        }
+        lastNanos = now;
+
+        TankDriveSim drive = sim.getDrive();
+        RobotPose pose = handoff.beginWrite();
+        pose.set(drive.getX() + random.nextGaussian() * SIGMA_INCHES,
+                drive.getY() + random.nextGaussian() * SIGMA_INCHES,
+                drive.getHeading() + random.nextGaussian() * SIGMA_RADIANS,
+                now, "sim");
+        handoff.publish();
+    }
+}
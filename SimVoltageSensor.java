@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Simulated battery: a resting voltage that sags while the motors are working.
+ */
+public class SimVoltageSensor implements VoltageDevice {
+
+    public static final double SAG_VOLTS_PER_MOTOR = 0.35;   // at full load
+
+    private double restingVoltage;
+    private double voltage;
+
+    public SimVoltageSensor(double restingVoltage) {
+        this.restingVoltage = restingVoltage;
+        this.voltage = restingVoltage;
+    }
+
+    public void setRestingVoltage(double restingVoltage) {
+        this.restingVoltage = restingVoltage;
+    }
+
+    /** Sets the voltage for the next cycle from the total motor load (sum of 0 to 1 loads). */
+    public void update(double totalLoad) {
+        voltage = restingVoltage - SAG_VOLTS_PER_MOTOR * totalLoad;
+    }
+
+    @Override
+    public double getVoltage() {
+        return voltage;
+    }
+}
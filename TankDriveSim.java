@@ -0,0 +1,66 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * 2D physics for the four-motor tank drive: turns wheel motion into the robot's position
+ * (inches) and heading (radians, counter-clockwise positive) on the field.
+ */
+public class TankDriveSim {
+
+    private final SimMotor leftFront;
+    private final SimMotor leftBack;
+    private final SimMotor rightFront;
+    private final SimMotor rightBack;
+
+    private double x;
+    private double y;
+    private double heading;
+
+    private double lastLeft;
+    private double lastRight;
+
+    public TankDriveSim(SimMotor leftFront, SimMotor leftBack, SimMotor rightFront, SimMotor rightBack) {
+        this.leftFront = leftFront;
+        this.leftBack = leftBack;
+        this.rightFront = rightFront;
+        this.rightBack = rightBack;
+    }
+
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /** Integrates the pose over whatever the motors did since the last call. */
+    public void update() {
+        double left = DriveKinematics.countsToInches(
+                (leftFront.getForwardCounts() + leftBack.getForwardCounts()) / 2);
+        double right = DriveKinematics.countsToInches(
+                (rightFront.getForwardCounts() + rightBack.getForwardCounts()) / 2);
+
+        double dLeft = left - lastLeft;
+        double dRight = right - lastRight;
+        lastLeft = left;
+        lastRight = right;
+
+        // arc between the two wheel paths, evaluated at the mid heading
+        double distance = (dLeft + dRight) / 2;
+        double dHeading = DriveKinematics.headingChange(dLeft, dRight);
+        double midHeading = heading + dHeading / 2;
+        x += distance * Math.cos(midHeading);
+        y += distance * Math.sin(midHeading);
+        heading += dHeading;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+}
@@ -0,0 +1,177 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sits between a loop and the Driver Station telemetry.
+ *
+ * Loops can put() values every iteration for free: numbers are only formatted when they change,
+ * each line reuses its own StringBuilder, and a packet is only sent when something changed and
+ * at most once every publish interval (default {@value #DEFAULT_INTERVAL_MS} ms). Nobody can read
+ * the Driver Station faster than that anyway.
+ *
+ * Lines are retained between packets (setAutoClear(false)), so an opmode that uses this should post
+ * all of its telemetry through it rather than mixing in telemetry.addData().
+ */
+public class TelemetryPublisher {
+
+    public static final long DEFAULT_INTERVAL_MS = 250;
+
+    private static class Line {
+        final String caption;
+        final StringBuilder text = new StringBuilder(32);
+        Telemetry.Item item;
+        long lastNumber;
+        String lastString;
+        boolean hasValue;
+        boolean changed;
+
+        Line(String caption) {
+            this.caption = caption;
+        }
+    }
+
+    private final Telemetry telemetry;
+    private final List<Line> lines = new ArrayList<Line>();
+    private long intervalNanos;
+    private long lastPublishNanos;
+    private boolean published = false;
+    private boolean dirty = false;
+
+    public TelemetryPublisher(Telemetry telemetry) {
+        this(telemetry, DEFAULT_INTERVAL_MS);
+    }
+
+    public TelemetryPublisher(Telemetry telemetry, long intervalMs) {
+        this.telemetry = telemetry;
+        this.intervalNanos = intervalMs * 1000000L;
+        telemetry.setAutoClear(false);
+    }
+
+    public void setInterval(long intervalMs) {
+        intervalNanos = intervalMs * 1000000L;
+    }
+
+    public void put(String caption, String value) {
+        Line line = line(caption);
+        // callers almost always pass constants, so the == check usually answers this
+        if (line.hasValue && (line.lastString == value || (value != null && value.equals(line.lastString)))) {
+            return;
+        }
+        line.lastString = value;
+        line.text.setLength(0);
+        line.text.append(value);
+        changed(line);
+    }
+
+    public void put(String caption, long value) {
+        Line line = line(caption);
+        if (line.hasValue && line.lastNumber == value) {
+            return;
+        }
+        line.lastNumber = value;
+        line.text.setLength(0);
+        line.text.append(value);
+        changed(line);
+    }
+
+    /** Posts a number rounded to the given number of decimal places. */
+    public void put(String caption, double value, int decimals) {
+        long scale = pow10(decimals);
+        long scaled = Math.round(value * scale);
+
+        Line line = line(caption);
+        if (line.hasValue && line.lastNumber == scaled) {
+            return;
+        }
+        line.lastNumber = scaled;
+        line.text.setLength(0);
+        appendFixed(line.text, scaled, scale, decimals);
+        changed(line);
+    }
+
+    /**
+     * True if update() would send a packet right now. Lets a loop skip building expensive
+     * values (e.g. formatting a pose) on the cycles where they would not be sent anyway.
+     */
+    public boolean isDue() {
+        return !published || System.nanoTime() - lastPublishNanos >= intervalNanos;
+    }
+
+    /** Call once per loop. Sends the changed lines if the publish interval has passed. */
+    public void update() {
+        if (!dirty || !isDue()) {
+            return;
+        }
+
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (!line.changed) {
+                continue;
+            }
+            // the StringBuilder itself is the value; telemetry turns it into text when it sends
+            if (line.item == null) {
+                line.item = telemetry.addData(line.caption, line.text);
+            } else {
+                line.item.setValue(line.text);
+            }
+            line.changed = false;
+        }
+
+        telemetry.update();
+        lastPublishNanos = System.nanoTime();
+        published = true;
+        dirty = false;
+    }
+
+    /** Sends whatever is pending right away, e.g. before waitForStart() or at the end of a routine. */
+    public void flush() {
+        published = false;
+        update();
+    }
+
+    private Line line(String caption) {
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.caption == caption || line.caption.equals(caption)) {
+                return line;
+            }
+        }
+        Line line = new Line(caption);
+        lines.add(line);
+        return line;
+    }
+
+    private void changed(Line line) {
+        line.hasValue = true;
+        line.changed = true;
+        dirty = true;
+    }
+
+    private static long pow10(int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        return scale;
+    }
+
+    // StringBuilder.append(double) allocates on Android, so do fixed point by hand
+    private static void appendFixed(StringBuilder text, long scaled, long scale, int decimals) {
+        if (scaled < 0) {
+            text.append('-');
+            scaled = -scaled;
+        }
+        text.append(scaled / scale);
+        if (decimals > 0) {
+            text.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                text.append((char) ('0' + (fraction / digit) % 10));
+            }
+        }
+    }
+}
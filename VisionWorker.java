@@ -0,0 +1,201 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.matrices.MatrixF;
+import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackable;
+import org.firstinspires.ftc.robotcore.external.navigation.VuforiaTrackableDefaultListener;
+
+import java.util.List;
+
+/**
+ * Polls the Vuforia trackables on its own thread and publishes the robot's field position
+ * through a {@link PoseHandoff}, so the opmode loop can grab the newest pose without ever
+ * waiting on Vuforia.
+ *
+ * When several targets are in view, the poses from each are combined into one (see
+ * {@link PoseFusion}) and published once per poll. Polls where no target has anything new
+ * publish nothing.
+ *
+ * The robot location is worked out here from the target's pose in the camera, the same way the
+ * SDK does it (target location x inverse pose x inverse phone location, see VuforiaTest), rather
+ * than taken from getUpdatedRobotLocation(). Vuforia's thread can move on a frame between two
+ * listener calls, so this way the location and the distance and angle we weigh it by always come
+ * from the same frame. getUpdatedRobotLocation() only tells us whether there is anything new.
+ *
+ * The trackables need their locations and phone information set before {@link #start()}.
+ */
+public class VisionWorker implements Runnable {
+
+    public static final long POLL_MILLIS = 10;    // camera is ~30 fps, no point going faster
+
+    // pose source when more than one target went into it
+    public static final String FUSED = "fused";
+
+    private static final float MM_PER_INCH = 25.4f;
+
+    private final VuforiaTrackable[] trackables;
+    private final VuforiaTrackableDefaultListener[] listeners;
+    private final String[] names;
+    private final Clock clock;
+    private final PoseHandoff handoff;
+
+    // each target on the field, and robot coordinates to phone coordinates; fixed once started
+    private final float[][] targetLocations;
+    private final float[] robotToPhone = PoseMath.create();
+
+    // reused for every location we get, see PoseMath
+    private final float[] location = PoseMath.create();
+    private final float[] targetPose = PoseMath.create();
+    private final float[] cameraToTarget = PoseMath.create();
+    private final float[] cameraLocation = PoseMath.create();
+
+    // every target with something new this poll goes in here, see PoseFusion
+    private final PoseFusion fusion = new PoseFusion();
+
+    // bit i set if trackable i was visible on the last poll
+    private volatile int visible;
+    private volatile boolean running;
+    private Thread thread;
+
+    public VisionWorker(List<VuforiaTrackable> trackables, OpenGLMatrix phoneLocationOnRobot, Clock clock) {
+        this(trackables, phoneLocationOnRobot, clock, new PoseHandoff());
+    }
+
+    /** Publishes into the given handoff, e.g. the robot's visionPoses for its PoseEstimator. */
+    public VisionWorker(List<VuforiaTrackable> trackables, OpenGLMatrix phoneLocationOnRobot, Clock clock,
+                        PoseHandoff handoff) {
+        this.trackables = trackables.toArray(new VuforiaTrackable[trackables.size()]);
+        this.listeners = new VuforiaTrackableDefaultListener[this.trackables.length];
+        this.names = new String[this.trackables.length];
+        this.targetLocations = new float[this.trackables.length][];
+        float[] phone = PoseMath.create();
+        copy(phoneLocationOnRobot, phone);
+        PoseMath.invertRigid(phone, robotToPhone);
+        for (int i = 0; i < this.trackables.length; i++) {
+            targetLocations[i] = PoseMath.create();
+            listeners[i] = (VuforiaTrackableDefaultListener) this.trackables[i].getListener();
+            names[i] = this.trackables[i].getName();
+        }
+        this.clock = clock;
+        this.handoff = handoff;
+    }
+
+    public void start() {
+        for (int i = 0; i < trackables.length; i++) {
+            copy(trackables[i].getLocation(), targetLocations[i]);
+        }
+        running = true;
+        thread = new Thread(this, "VisionWorker");
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            poll();
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Newest pose; only call from one thread (the opmode loop), and not if a PoseEstimator is
+     * reading the same handoff. Constant time, never blocks.
+     */
+    public RobotPose latest() {
+        return handoff.latest();
+    }
+
+    public int getTrackableCount() {
+        return names.length;
+    }
+
+    public String getName(int i) {
+        return names[i];
+    }
+
+    public boolean isVisible(int i) {
+        return (visible & (1 << i)) != 0;
+    }
+
+    private void poll() {
+        int nowVisible = 0;
+        fusion.reset();
+        for (int i = 0; i < listeners.length; i++) {
+            try {
+                if (!listeners[i].isVisible()) {
+                    continue;
+                }
+                nowVisible |= 1 << i;
+
+                // null if nothing new from this target since the last poll; then it has nothing to add
+                if (listeners[i].getUpdatedRobotLocation() == null) {
+                    continue;
+                }
+                OpenGLMatrix seen = listeners[i].getPose();
+                if (seen == null) {
+                    continue;
+                }
+                copy(seen, targetPose);
+
+                // robot -> phone -> target -> field, i.e. L x P^-1 x C^-1
+                PoseMath.invertRigid(targetPose, cameraToTarget);
+                PoseMath.multiply(targetLocations[i], cameraToTarget, cameraLocation);
+                PoseMath.multiply(cameraLocation, robotToPhone, location);
+
+                // how far away the target is, and how squarely we see it: its normal (z axis) against the line of sight
+                float tx = PoseMath.getX(targetPose);
+                float ty = PoseMath.getY(targetPose);
+                float tz = PoseMath.getZ(targetPose);
+                double distance = Math.sqrt(tx * tx + ty * ty + tz * tz);
+                if (distance == 0) {
+                    continue;
+                }
+                double cosView = Math.abs(targetPose[8] * tx + targetPose[9] * ty + targetPose[10] * tz) / distance;
+
+                fusion.add(i, PoseMath.getX(location) / MM_PER_INCH, PoseMath.getY(location) / MM_PER_INCH,
+                        PoseMath.getHeading(location), distance / MM_PER_INCH, cosView);
+            } catch (RuntimeException e) {
+                // don't let one bad read kill the thread
+                RobotLog.e("VisionWorker: " + names[i] + ": " + e.getMessage());
+            }
+        }
+        visible = nowVisible;
+
+        // a frame nobody had anything new from, or only targets seen too edge on
+        if (fusion.getCount() == 0) {
+            return;
+        }
+        RobotPose pose = handoff.beginWrite();
+        pose.set(fusion.getX(), fusion.getY(), fusion.getHeading(), clock.nanoTime(),
+                fusion.getCount() == 1 ? names[fusion.getBest()] : FUSED);
+        handoff.publish();
+    }
+
+    /** Copies an SDK matrix into a PoseMath array without going through getData()'s copy. */
+    public static void copy(MatrixF matrix, float[] out) {
+        for (int c = 0; c < 4; c++) {
+            for (int r = 0; r < 4; r++) {
+                out[c * 4 + r] = matrix.get(r, c);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Battery voltage as seen by a motor controller.
+ */
+public interface VoltageDevice {
+
+    double getVoltage();
+}
@@ -0,0 +1,164 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Battery voltage without a bus read: samples the voltage sensor on its own thread at a fixed
+ * rate, smooths it, and keeps the result in volatile fields the control loop can read for free.
+ *
+ * The battery sags while the motors are working, so a raw reading depends on what the robot
+ * happened to be doing. We take that back out with a simple internal resistance model (sag is
+ * proportional to the total motor load, which the loop reports through {@link #setLoad(double)})
+ * before filtering, which gives a steady resting voltage, and put it back in for the voltage
+ * right now and the voltage to expect under some other load.
+ *
+ * The getters don't follow the thread from one sample to the next: {@link #setLoad(double)}, once
+ * per control cycle, hands them the newest filtered value, so everything in one cycle works from
+ * the same voltage and a log of it is enough to replay the cycle exactly.
+ *
+ * Also a {@link VoltageDevice}, so it can stand in for the sensor in the {@link HardwareSnapshot}.
+ */
+public class VoltageMonitor implements VoltageDevice, Runnable {
+
+    public static final long SAMPLE_MILLIS = 20;
+
+    // time constant of the low-pass filter on the resting voltage
+    public static final double FILTER_SECONDS = 0.5;
+
+    // the voltage feedforward gains are tuned at
+    public static final double NOMINAL_VOLTS = 12.0;
+
+    // volts lost per motor running flat out (load 1)
+    public static final double SAG_VOLTS_PER_LOAD = 0.35;
+
+    private final VoltageDevice sensor;
+    private final Clock clock;
+
+    // the filter's output, kept up to date by sample()
+    private volatile double filtered;
+
+    // what the getters use: filtered as of the last setLoad()
+    private volatile double resting;
+    private volatile double load;
+    private volatile long samples;
+
+    // only touched by whoever calls sample()
+    private long lastNanos;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public VoltageMonitor(VoltageDevice sensor, Clock clock) {
+        this.sensor = sensor;
+        this.clock = clock;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "VoltageMonitor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            sample();
+            try {
+                Thread.sleep(SAMPLE_MILLIS);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Reads the sensor once and folds it into the filter. The thread calls this; call it
+     * directly instead of start()ing the thread to run it in step with something else (the sim).
+     */
+    public void sample() {
+        double raw = sensor.getVoltage();
+        long now = clock.nanoTime();
+        if (raw <= 0) {
+            // the sensor reads 0 now and then when the bus is busy; not a battery we could be running on
+            return;
+        }
+        double unloaded = raw + SAG_VOLTS_PER_LOAD * load;
+        if (samples == 0) {
+            filtered = unloaded;
+        } else {
+            double dt = (now - lastNanos) / 1e9;
+            double alpha = 1 - Math.exp(-dt / FILTER_SECONDS);
+            filtered += alpha * (unloaded - filtered);
+        }
+        lastNanos = now;
+        samples++;
+    }
+
+    /**
+     * Total motor load right now, the sum over motors of |power| (0 to 1 each). Call once per
+     * control cycle before anything reads the voltage; also takes the newest filtered voltage for
+     * the getters to return until the next call.
+     */
+    public void setLoad(double load) {
+        this.load = load;
+        resting = filtered;
+    }
+
+    /**
+     * For replaying a log: puts the filter's output straight at a logged resting voltage, as if
+     * the thread had got there, so the next setLoad() hands out exactly what the robot used.
+     * Not while the thread is running.
+     */
+    public void setRestingVoltage(double volts) {
+        filtered = volts;
+        lastNanos = clock.nanoTime();
+        if (samples == 0) {
+            samples = 1;
+        }
+    }
+
+    /** Filtered voltage at the current load. */
+    @Override
+    public double getVoltage() {
+        return getVoltageUnder(load);
+    }
+
+    /** Filtered voltage with nothing running. */
+    public double getRestingVoltage() {
+        return resting;
+    }
+
+    /** The voltage to expect with the given total motor load. */
+    public double getVoltageUnder(double load) {
+        return resting - SAG_VOLTS_PER_LOAD * load;
+    }
+
+    /**
+     * Scales an open-loop power tuned at NOMINAL_VOLTS to give the same motor voltage on this
+     * battery at the current load. Clipped to 1; returns power as is until there has been a reading.
+     */
+    public double compensate(double power) {
+        double voltage = getVoltage();
+        if (samples == 0 || voltage <= 0) {
+            return power;
+        }
+        double scaled = power * NOMINAL_VOLTS / voltage;
+        return Math.max(-1, Math.min(1, scaled));
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.robotcore.external.matrices.OpenGLMatrix;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+
+import java.io.IOException;
+
+/**
+ * Benchmarks VuforiaTest's per-loop pose handling with synthetic robot locations, the way
+ * getUpdatedRobotLocation() hands them out (a new matrix some loops, null the rest).
+ *
+ * Needs the SDK's RobotCore classes on the classpath for OpenGLMatrix:
+ *
+ *   java -cp RobotCore.jar:. org.firstinspires.ftc.teamcode.VuforiaPoseBenchmark [results.json]
+ */
+public class VuforiaPoseBenchmark {
+
+    static OpenGLMatrix[] syntheticLocations(int count) {
+        OpenGLMatrix[] locations = new OpenGLMatrix[count];
+        for (int i = 0; i < count; i++) {
+            // robot wandering around the middle of the field, turning as it goes
+            float x = (float) (600 * Math.sin(i * 0.1));
+            float y = (float) (600 * Math.cos(i * 0.07));
+            locations[i] = OpenGLMatrix.translation(x, y, 0)
+                    .multiplied(Orientation.getRotationMatrix(
+                            AxesReference.EXTRINSIC, AxesOrder.XZX,
+                            AngleUnit.DEGREES, 0, i * 3 % 360, 0));
+        }
+        return locations;
+    }
+
+    /** The tracking loop body: pick up the newest location and format it for telemetry. */
+    public static class TrackingLoop extends MicroBenchmark {
+        private OpenGLMatrix[] locations;
+        private OpenGLMatrix lastLocation;
+
+        @Override
+        public String getName() {
+            return "vuforia.trackingLoop";
+        }
+
+        @Override
+        public void setup() {
+            locations = syntheticLocations(64);
+        }
+
+        @Override
+        public long op(int i) {
+            // two trackables, each with a new location one loop in three
+            for (int t = 0; t < 2; t++) {
+                OpenGLMatrix update = (i + t) % 3 == 0 ? locations[(i + t) & 63] : null;
+                if (update != null) {
+                    lastLocation = update;
+                }
+            }
+            return lastLocation == null ? 0 : lastLocation.formatAsTransform().length();
+        }
+    }
+
+    /**
+     * The same loop the way VisionWorker does it: copy the target's pose into a reused array,
+     * turn it into a field location with PoseMath, pull x/y/heading out, and leave formatting to
+     * the telemetry publish rate. The synthetic locations stand in for the poses.
+     */
+    public static class PooledTrackingLoop extends MicroBenchmark {
+        private OpenGLMatrix[] locations;
+        private final float[] targetLocation = PoseMath.create();
+        private final float[] robotToPhone = PoseMath.create();
+        private final float[] targetPose = PoseMath.create();
+        private final float[] cameraToTarget = PoseMath.create();
+        private final float[] cameraLocation = PoseMath.create();
+        private final float[] location = PoseMath.create();
+        private final RobotPose pose = new RobotPose();
+
+        @Override
+        public String getName() {
+            return "vuforia.trackingLoopPooled";
+        }
+
+        @Override
+        public void setup() {
+            locations = syntheticLocations(64);
+            VisionWorker.copy(FieldTargets.location(FieldTargets.WHEELS), targetLocation);
+            float[] phone = PoseMath.create();
+            VisionWorker.copy(OpenGLMatrix.translation(0, 18 * FieldTargets.MM_PER_INCH / 2, 0), phone);
+            PoseMath.invertRigid(phone, robotToPhone);
+        }
+
+        @Override
+        public long op(int i) {
+            for (int t = 0; t < 2; t++) {
+                OpenGLMatrix update = (i + t) % 3 == 0 ? locations[(i + t) & 63] : null;
+                if (update != null) {
+                    VisionWorker.copy(update, targetPose);
+                    PoseMath.invertRigid(targetPose, cameraToTarget);
+                    PoseMath.multiply(targetLocation, cameraToTarget, cameraLocation);
+                    PoseMath.multiply(cameraLocation, robotToPhone, location);
+                    pose.set(PoseMath.getX(location), PoseMath.getY(location), PoseMath.getHeading(location), i, "");
+                }
+            }
+            return (long) pose.x ^ (long) (pose.heading * 1000);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        BenchmarkRunner.runAll(new MicroBenchmark[] { new TrackingLoop(), new PooledTrackingLoop() },
+                args.length > 0 ? args[0] : null);
+    }
+}
@@ -91,8 +91,6 @@ public class VuforiaTest extends LinearOpMode {
 
     public static final String TAG = "Vuforia Sample";
 
-    OpenGLMatrix lastLocation = null;
-
     /**
      * {@link #vuforia} is the variable we will use to store our instance of the Vuforia
      * localization engine.
@@ -124,7 +122,7 @@ public class VuforiaTest extends LinearOpMode {
          * {@link Parameters} instance with which you initialize Vuforia.
          */
         VuforiaLocalizer.Parameters parameters = new VuforiaLocalizer.Parameters(com.qualcomm.ftcrobotcontroller.R.id.cameraMonitorViewId);
-        parameters.vuforiaLicenseKey = "ATHlAS7/////AAAAGSrlghNuCkIdu0Y/Eqnxz9oejoRzibKYqWJYEJik+9ImrFuJaDs2/WAm5ovuC4iV/m4DHM3WWgAl9pI5MQULOsKslna/+bYWzcbzpzak4NMtWuGLnnJYCeH8vP2x8fC8R0I+Odvd4vhnJdSa3P6C87oTqtVSX0sZcVOvALmUpCJcSFHAqshW0F7XziW89qM4tBDQoKgNCkbFNmKeRnKa4j4Vfyk0RSNXc/79shIk8Pu4j8krsBComGYTx4FKsClnfgZYOp51uhMg/yoEHfpy0XMrCOBZUYIyTVvOsCtC9GzLAOLoxEnunRRjagCKni32kkrH07slhuiCqpNBJQ02y8qZFChTjt5i+ZZwnzaWCFSf";
+        parameters.vuforiaLicenseKey = CraigLauncherAuton.VUFORIA_LICENSE_KEY;
         parameters.cameraDirection = VuforiaLocalizer.CameraDirection.BACK;
         this.vuforia = ClassFactory.createVuforiaLocalizer(parameters);
 
@@ -139,27 +137,6 @@ public class VuforiaTest extends LinearOpMode {
 
         Vuforia.setHint(HINT.HINT_MAX_SIMULTANEOUS_IMAGE_TARGETS, 4);
 
-        VuforiaTrackables beacons = vuforia.loadTrackablesFromAsset("FTC_2016-17");
-        VuforiaTrackable redTarget1 = beacons.get(0);
-        redTarget1.setName("Wheels");
-
-        VuforiaTrackable blueTarget1 = beacons.get(1);
-        blueTarget1.setName("Tools");
-
-        /*
-        VuforiaTrackable redTarget2 = beacons.get(2);
-        redTarget2.setName("Lego");
-
-        VuforiaTrackable blueTarget2 = beacons.get(3);
-        blueTarget2.setName("Gears");
-        */
-
-
-        /** For convenience, gather together all the trackable objects in one easily-iterable collection */
-        List<VuforiaTrackable> allTrackables = new ArrayList<VuforiaTrackable>();
-        allTrackables.add(beacons.get(0));
-        allTrackables.add(beacons.get(1));
-
         /**
          * We use units of mm here because that's the recommended units of measurement for the
          * size values specified in the XML for the ImageTarget trackables in data sets. E.g.:
@@ -169,7 +146,6 @@ public class VuforiaTest extends LinearOpMode {
          */
         float mmPerInch        = 25.4f;
         float mmBotWidth       = 18 * mmPerInch;            // ... or whatever is right for your robot
-        float mmFTCFieldWidth  = (12*12 - 2) * mmPerInch;   // the FTC field is ~11'10" center-to-center of the glass panels
 
         /**
          * In order for localization to work, we need to tell the system where each target we
@@ -206,54 +182,10 @@ public class VuforiaTest extends LinearOpMode {
          *
          * </ol>
          *
-         * This example places the "stones" image on the perimeter wall to the Left
-         *  of the Red Driver station wall.  Similar to the Red Beacon Location on the Res-Q
-         *
-         * This example places the "chips" image on the perimeter wall to the Right
-         *  of the Blue Driver station.  Similar to the Blue Beacon Location on the Res-Q
+         * The four target locations are built this way in FieldTargets.
          *
          * See the doc folder of this project for a description of the field Axis conventions.
-         *
-         * Initially the target is conceptually lying at the origin of the field's coordinate system
-         * (the center of the field), facing up.
-         *
-         * In this configuration, the target's coordinate system aligns with that of the field.
-         *
-         * In a real situation we'd also account for the vertical (Z) offset of the target,
-         * but for simplicity, we ignore that here; for a real robot, you'll want to fix that.
-         *
-         * To place the Stones Target on the Red Audience wall:
-         * - First we rotate it 90 around the field's X axis to flip it upright
-         * - Then we rotate it  90 around the field's Z access to face it away from the audience.
-         * - Finally, we translate it back along the X axis towards the red audience wall.
          */
-        OpenGLMatrix redTargetLocationOnField = OpenGLMatrix
-                /* Then we translate the target off to the RED WALL. Our translation here
-                is a negative translation in X.*/
-                .translation(-mmFTCFieldWidth/2, 0, 0)
-                .multiplied(Orientation.getRotationMatrix(
-                        /* First, in the fixed (field) coordinate system, we rotate 90deg in X, then 90 in Z */
-                        AxesReference.EXTRINSIC, AxesOrder.XZX,
-                        AngleUnit.DEGREES, 90, 90, 0));
-        redTarget1.setLocation(redTargetLocationOnField);
-        RobotLog.ii(TAG, "Red Target=%s", format(redTargetLocationOnField));
-
-       /*
-        * To place the Stones Target on the Blue Audience wall:
-        * - First we rotate it 90 around the field's X axis to flip it upright
-        * - Finally, we translate it along the Y axis towards the blue audience wall.
-        */
-        OpenGLMatrix blueTargetLocationOnField = OpenGLMatrix
-                /* Then we translate the target off to the Blue Audience wall.
-                Our translation here is a positive translation in Y.*/
-                .translation(0, mmFTCFieldWidth/2, 0)
-                .multiplied(Orientation.getRotationMatrix(
-                        /* First, in the fixed (field) coordinate system, we rotate 90deg in X */
-                        AxesReference.EXTRINSIC, AxesOrder.XZX,
-                        AngleUnit.DEGREES, 90, 0, 0));
-        blueTarget1.setLocation(blueTargetLocationOnField);
-        RobotLog.ii(TAG, "Blue Target=%s", format(blueTargetLocationOnField));
-
         /**
          * Create a transformation matrix describing where the phone is on the robot. Here, we
          * put the phone on the right hand side of the robot with the screen facing in (see our
@@ -271,19 +203,23 @@ public class VuforiaTest extends LinearOpMode {
         RobotLog.ii(TAG, "phone=%s", format(phoneLocationOnRobot));
 
         /**
-         * Let the trackable listeners we care about know where the phone is. We know that each
-         * listener is a {@link VuforiaTrackableDefaultListener} and can so safely cast because
-         * we have not ourselves installed a listener of a different type.
+         * Load all four targets, put each where it is on the field and let its listener know
+         * where the phone is.
          */
-        ((VuforiaTrackableDefaultListener)redTarget1.getListener()).setPhoneInformation(phoneLocationOnRobot, parameters.cameraDirection);
-        ((VuforiaTrackableDefaultListener)blueTarget1.getListener()).setPhoneInformation(phoneLocationOnRobot, parameters.cameraDirection);
+        VuforiaTrackables beacons = FieldTargets.load(vuforia, phoneLocationOnRobot, parameters.cameraDirection);
+        for (VuforiaTrackable target : beacons) {
+            RobotLog.ii(TAG, "%s=%s", target.getName(), format(target.getLocation()));
+        }
+
+        /** For convenience, gather together all the trackable objects in one easily-iterable collection */
+        List<VuforiaTrackable> allTrackables = new ArrayList<VuforiaTrackable>(beacons);
 
         /**
          * A brief tutorial: here's how all the math is going to work:
          *
          * C = phoneLocationOnRobot  maps   phone coords -> robot coords
          * P = tracker.getPose()     maps   image target coords -> phone coords
-         * L = redTargetLocationOnField maps   image target coords -> field coords
+         * L = target.getLocation() maps   image target coords -> field coords
          *
          * So
          *
@@ -297,40 +233,65 @@ public class VuforiaTest extends LinearOpMode {
          * @see VuforiaTrackableDefaultListener#getRobotLocation()
          */
 
+        /**
+         * Everything goes out through the publisher so we only send to the Driver Station a few
+         * times a second, and only build the position string when it is actually going to be sent.
+         */
+        TelemetryPublisher dashboard = new TelemetryPublisher(telemetry);
+        LoopStats loopStats = new LoopStats("vuforia");
+
         /** Wait for the game to begin */
-        telemetry.addData(">", "Press Play to start tracking");
-        telemetry.update();
+        dashboard.put(">", "Press Play to start tracking");
+        dashboard.flush();
         waitForStart();
 
         /** Start tracking the data sets we care about. */
         beacons.activate();
 
-        while (opModeIsActive()) {
+        /**
+         * The trackables are polled on a thread of their own; all this loop does is pick up
+         * the newest pose, which never waits on Vuforia.
+         */
+        VisionWorker vision = new VisionWorker(allTrackables, phoneLocationOnRobot, Clock.SYSTEM);
+        vision.start();
 
-            for (VuforiaTrackable trackable : allTrackables) {
-                /**
-                 * getUpdatedRobotLocation() will return null if no new information is available since
-                 * the last time that call was made, or if the trackable is not currently visible.
-                 * getRobotLocation() will return null if the trackable is not currently visible.
-                 */
-                telemetry.addData(trackable.getName(), ((VuforiaTrackableDefaultListener)trackable.getListener()).isVisible() ? "Visible" : "Not Visible");    //
+        /** And the beacon colors under whichever target is in view, from the camera frames */
+        BeaconReading beacon = new BeaconReading();
+        BeaconVision beaconVision = new BeaconVision(vuforia, allTrackables, beacon, Clock.SYSTEM);
+        beaconVision.start();
+
+        while (opModeIsActive()) {
+            loopStats.mark();
 
-                OpenGLMatrix robotLocationTransform = ((VuforiaTrackableDefaultListener)trackable.getListener()).getUpdatedRobotLocation();
-                if (robotLocationTransform != null) {
-                    lastLocation = robotLocationTransform;
-                }
+            for (int i = 0; i < vision.getTrackableCount(); i++) {
+                dashboard.put(vision.getName(i), vision.isVisible(i) ? "Visible" : "Not Visible");
             }
+
             /**
              * Provide feedback as to where the robot was last located (if we know).
              */
-            if (lastLocation != null) {
-                //  RobotLog.vv(TAG, "robot=%s", format(lastLocation));
-                telemetry.addData("Pos", format(lastLocation));
+            RobotPose pose = vision.latest();
+            if (pose.isKnown()) {
+                dashboard.put("Pos", pose.source);
+                dashboard.put("X in", pose.x, 1);
+                dashboard.put("Y in", pose.y, 1);
+                dashboard.put("Heading", Math.toDegrees(pose.heading), 1);
+                dashboard.put("Age ms", (Clock.SYSTEM.nanoTime() - pose.timestampNanos) / 1000000L);
             } else {
-                telemetry.addData("Pos", "Unknown");
+                dashboard.put("Pos", "Unknown");
+            }
+            if (beacon.isKnown()) {
+                dashboard.put("Beacon left", beacon.getLeft().name());
+                dashboard.put("Beacon right", beacon.getRight().name());
             }
-            telemetry.update();
+            loopStats.report(dashboard);
+            dashboard.update();
         }
+
+        beaconVision.stop();
+        vision.stop();
+        beacons.deactivate();
+        LoopStats.save(getClass().getSimpleName(), loopStats);
     }
 
     /**
@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode;
+
+/**
+ * Non-blocking replacement for sleep(); other commands keep running while this one waits.
+ */
+public class WaitCommand implements Command {
+
+    private final Clock clock;
+    private final long millis;
+    private long startNanos;
+
+    public WaitCommand(Clock clock, long millis) {
+        this.clock = clock;
+        this.millis = millis;
+    }
+
+    @Override
+    public void start() {
+        startNanos = clock.nanoTime();
+    }
+
+    @Override
+    public void execute() {
+    }
+
+    @Override
+    public boolean isFinished() {
+        return clock.nanoTime() - startNanos >= millis * 1000000L;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+    }
+}